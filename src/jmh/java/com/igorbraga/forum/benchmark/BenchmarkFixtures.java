@@ -0,0 +1,73 @@
+package com.igorbraga.forum.benchmark;
+
+import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.post.Post;
+import com.igorbraga.forum.domain.user.Role;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.security.JwtTokenProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+final class BenchmarkFixtures {
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@forum.test");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuN3N1tQk6mA5p0b3Cz4yXyE1kz4zQ0eO");
+        user.setRoles(Set.of(new Role(1L, "ROLE_USER"), new Role(2L, "ROLE_MODERATOR")));
+        return user;
+    }
+
+    static List<Comment> comments(int count, User author) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Comment comment = new Comment();
+            comment.setId((long) i);
+            comment.setContent("Comment number " + i + " with a sentence or two of text, as most replies have.");
+            comment.setPublicationDate(now.plusSeconds(i));
+            comment.setAuthor(author);
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    static Post post(long id, User author) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("A post title");
+        post.setContent("Post content ".repeat(50));
+        post.setPublicationDate(LocalDateTime.now());
+        post.setUpdatedAt(post.getPublicationDate());
+        post.setVersion(0L);
+        post.setAuthor(author);
+        return post;
+    }
+
+    static List<CommentSummary> commentSummaries(List<Comment> comments) {
+        return comments.stream()
+                .map(comment -> new CommentSummary(comment.getId(), comment.getContent(), comment.getPublicationDate(),
+                        comment.getAuthor().getId(), comment.getAuthor().getUsername()))
+                .toList();
+    }
+
+    static JwtTokenProvider tokenProvider(long verifiedTokenCacheMaxSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecretString", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 86_400_000);
+        ReflectionTestUtils.setField(provider, "verifiedTokenCacheMaxSize", verifiedTokenCacheMaxSize);
+        provider.init();
+        return provider;
+    }
+}
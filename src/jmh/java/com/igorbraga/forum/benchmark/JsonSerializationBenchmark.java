@@ -0,0 +1,65 @@
+package com.igorbraga.forum.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.igorbraga.forum.domain.post.PostPage;
+import com.igorbraga.forum.domain.post.PostResponseDTO;
+import com.igorbraga.forum.domain.post.PostSummary;
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes the feed page and post detail with an ObjectMapper configured the way
+ * Spring MVC builds its own, writing to bytes as the message converter does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private ObjectWriter writer;
+    private PostPage feedPage;
+    private PostResponseDTO postDetail;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        UserResponseDTO author = UserResponseDTO.from(BenchmarkFixtures.user(1));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<PostSummary> posts = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            posts.add(new PostSummary(id, "Post title " + id, now, now, author, id, id * 10));
+        }
+        feedPage = new PostPage(posts, "MjAyNi0xMC0xN1QxMjowMHwyMA");
+        postDetail = new PostResponseDTO(1L, "A post title", "Post content ".repeat(50), now, author, 0,
+                BenchmarkFixtures.commentSummaries(BenchmarkFixtures.comments(50, BenchmarkFixtures.user(2))));
+    }
+
+    @Benchmark
+    public byte[] feedPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(feedPage);
+    }
+
+    @Benchmark
+    public byte[] postDetail() throws JsonProcessingException {
+        return writer.writeValueAsBytes(postDetail);
+    }
+}
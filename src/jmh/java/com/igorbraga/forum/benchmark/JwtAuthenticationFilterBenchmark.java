@@ -0,0 +1,70 @@
+package com.igorbraga.forum.benchmark;
+
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.security.JwtAuthenticationFilter;
+import com.igorbraga.forum.security.JwtTokenProvider;
+import com.igorbraga.forum.security.PrincipalCache;
+import com.igorbraga.forum.service.UserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state cost of authenticating a request: token and principal are both cached,
+ * which is the path every authenticated request takes after its first hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkFixtures.user(1);
+        JwtTokenProvider tokenProvider = BenchmarkFixtures.tokenProvider(10_000);
+        PrincipalCache principalCache = new PrincipalCache(60_000, 10_000);
+        UserDetailsService userDetailsService = new UserDetailsService(null) {
+            @Override
+            public User loadUserById(Long id) {
+                return user;
+            }
+        };
+        filter = new JwtAuthenticationFilter(tokenProvider, userDetailsService, principalCache, new SimpleMeterRegistry());
+        authorizationHeader = "Bearer " + tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @Benchmark
+    public void authenticatedRequest(Blackhole blackhole) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+        request.addHeader("Authorization", authorizationHeader);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,57 @@
+package com.igorbraga.forum.benchmark;
+
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+    private JwtTokenProvider cachingProvider;
+    private JwtTokenProvider uncachedProvider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingProvider = BenchmarkFixtures.tokenProvider(10_000);
+        uncachedProvider = BenchmarkFixtures.tokenProvider(0);
+        User user = BenchmarkFixtures.user(1);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = cachingProvider.generateToken(authentication);
+        cachingProvider.getJWTClaims(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public Claims getClaimsVerifiedCacheHit() {
+        return cachingProvider.getJWTClaims(token);
+    }
+
+    @Benchmark
+    public Claims getClaimsFullVerification() {
+        return uncachedProvider.getJWTClaims(token);
+    }
+}
@@ -0,0 +1,59 @@
+package com.igorbraga.forum.benchmark;
+
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.post.PostDetailRow;
+import com.igorbraga.forum.domain.post.PostResponseDTO;
+import com.igorbraga.forum.domain.post.PostSummary;
+import com.igorbraga.forum.domain.post.PostSummaryRow;
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostDtoMappingBenchmark {
+    @Param({"0", "50"})
+    public int comments;
+
+    private UserResponseDTO author;
+    private PostSummaryRow summaryRow;
+    private PostDetailRow detailRow;
+    private List<CommentSummary> postComments;
+
+    @Setup
+    public void setUp() {
+        // Authors come resolved from AuthorDirectory, so mapping a row no longer builds one.
+        author = UserResponseDTO.from(BenchmarkFixtures.user(1));
+        LocalDateTime now = LocalDateTime.now();
+        summaryRow = new PostSummaryRow(1L, "A post title", now, now, author.id(), comments, 0);
+        detailRow = new PostDetailRow(1L, "A post title", "Post content", now, author.id(), 0, 0L, 0, now);
+        postComments = BenchmarkFixtures.commentSummaries(BenchmarkFixtures.comments(comments, BenchmarkFixtures.user(2)));
+    }
+
+    @Benchmark
+    public PostSummary postSummary() {
+        return summaryRow.toSummary(author);
+    }
+
+    @Benchmark
+    public PostResponseDTO postResponse() {
+        return detailRow.toResponse(author, postComments);
+    }
+}
@@ -0,0 +1,82 @@
+package com.igorbraga.forum.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.post.Post;
+import com.igorbraga.forum.domain.post.PostResponseDTO;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write responses as entities, the way post create/update and comment update used to, against the
+ * DTOs they return now. Run with {@code -prof gc} (the profile's default) and compare
+ * {@code gc.alloc.rate.norm} for the allocation per response. The payload sizes are printed once
+ * per fork.
+ * <p>
+ * The comment entity has no post here. On a live request it is a lazy proxy that Jackson either
+ * fails on or loads, so the entity numbers are a lower bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponsePayloadBenchmark {
+    private ObjectWriter writer;
+    private Post post;
+    private Comment comment;
+    private UserResponseDTO author;
+    private CommentSummary commentSummary;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        User user = BenchmarkFixtures.user(1);
+        author = UserResponseDTO.from(user);
+        post = BenchmarkFixtures.post(1, user);
+        comment = BenchmarkFixtures.comments(1, user).getFirst();
+        commentSummary = BenchmarkFixtures.commentSummaries(List.of(comment)).getFirst();
+
+        System.out.printf("%nBytes per response: post entity %d, post DTO %d, comment entity %d, comment DTO %d%n",
+                postEntity().length, postResponse().length, commentEntity().length, commentSummary().length);
+    }
+
+    @Benchmark
+    public byte[] postEntity() throws JsonProcessingException {
+        return writer.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public byte[] postResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(new PostResponseDTO(post.getId(), post.getTitle(), post.getContent(),
+                post.getPublicationDate(), author, 0, List.of()));
+    }
+
+    @Benchmark
+    public byte[] commentEntity() throws JsonProcessingException {
+        return writer.writeValueAsBytes(comment);
+    }
+
+    @Benchmark
+    public byte[] commentSummary() throws JsonProcessingException {
+        return writer.writeValueAsBytes(new CommentSummary(comment.getId(), comment.getContent(), comment.getPublicationDate(),
+                comment.getAuthor().getId(), comment.getAuthor().getUsername()));
+    }
+}
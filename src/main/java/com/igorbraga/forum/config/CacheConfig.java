@@ -0,0 +1,34 @@
+package com.igorbraga.forum.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+    public static final String POST_FEED_PAGES = "postFeedPages";
+    public static final String POST_SUMMARIES = "postSummaries";
+    public static final String POST_DETAILS = "postDetails";
+    public static final String POST_AUTHORS = "postAuthors";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${application.cache.postFeedPagesSpec}") String postFeedPagesSpec,
+                                     @Value("${application.cache.postSummariesSpec}") String postSummariesSpec,
+                                     @Value("${application.cache.postDetailsSpec}") String postDetailsSpec,
+                                     @Value("${application.cache.postAuthorsSpec}") String postAuthorsSpec) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new GuardedCaffeineCache(POST_FEED_PAGES, Caffeine.from(postFeedPagesSpec).build()),
+                new GuardedCaffeineCache(POST_SUMMARIES, Caffeine.from(postSummariesSpec).build()),
+                new GuardedCaffeineCache(POST_DETAILS, Caffeine.from(postDetailsSpec).build()),
+                new GuardedCaffeineCache(POST_AUTHORS, Caffeine.from(postAuthorsSpec).build())));
+        cacheManager.initializeCaches();
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
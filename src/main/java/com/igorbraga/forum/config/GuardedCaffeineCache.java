@@ -0,0 +1,136 @@
+package com.igorbraga.forum.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Caffeine cache whose read-through loads are not stored when they overlap an eviction of their key.
+ * Writers evict after their transaction commits, so a reader that loaded the old rows just before could
+ * otherwise put them back right after the eviction and serve them for the whole TTL.
+ * <p>
+ * Every eviction bumps a generation, striped by key so that evicting one entry does not discard the
+ * loads of unrelated keys. A load reads its key's generation before querying and
+ * {@link #putIfUnchanged} stores the value only if that generation still holds. The check and the
+ * store are one atomic map operation and the bump comes before the removal, so either the store sees
+ * the bump or the removal sees the stored value. Loads still run outside Caffeine's compute lock.
+ * <p>
+ * Entries can also be updated in place by a bulk write that commits outside the cache, such as a
+ * view-count flush. Such a write is bracketed by {@link #beginBulkUpdate} and {@link #endBulkUpdate},
+ * and a load that overlaps the bracket is not stored either: it cannot tell whether it read the rows
+ * before or after the write committed, so the in-place update would be lost or applied twice.
+ */
+public class GuardedCaffeineCache extends CaffeineCache {
+    private static final int STRIPES = 64;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final AtomicInteger bulkUpdates = new AtomicInteger();
+
+    public GuardedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        super(name, cache);
+    }
+
+    /**
+     * Unwraps the guarded cache behind a cache returned by the application's {@code CacheManager}.
+     */
+    public static GuardedCaffeineCache of(Cache cache) {
+        Cache target = cache;
+        if (target instanceof TransactionAwareCacheDecorator decorator) {
+            target = decorator.getTargetCache();
+        }
+        if (target instanceof GuardedCaffeineCache guarded) {
+            return guarded;
+        }
+        throw new IllegalArgumentException("Cache " + cache.getName() + " is not a " + GuardedCaffeineCache.class.getSimpleName());
+    }
+
+    /**
+     * The generation to pass to {@link #putIfUnchanged}, read before loading the value.
+     */
+    public long generation(Object key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * Stores the value unless the key was evicted, or a bulk update ran, since {@code generation} was read.
+     */
+    public void putIfUnchanged(Object key, @Nullable Object value, long generation) {
+        Object storeValue = toStoreValue(value);
+        getNativeCache().asMap().compute(key,
+                (k, current) -> bulkUpdates.get() == 0 && generations.get(stripe(k)) == generation ? storeValue : current);
+    }
+
+    /**
+     * Starts a bulk write whose changes the cached entries will be updated with in place.
+     */
+    public void beginBulkUpdate() {
+        bulkUpdates.incrementAndGet();
+        bumpAll();
+    }
+
+    /**
+     * Ends a bulk write, after the cached entries have been updated in place.
+     */
+    public void endBulkUpdate() {
+        bumpAll();
+        bulkUpdates.decrementAndGet();
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        long generation = generation(key);
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        putIfUnchanged(key, value, generation);
+        return value;
+    }
+
+    @Override
+    public void evict(Object key) {
+        generations.incrementAndGet(stripe(key));
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        generations.incrementAndGet(stripe(key));
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        bumpAll();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        bumpAll();
+        return super.invalidate();
+    }
+
+    private void bumpAll() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,65 @@
+package com.igorbraga.forum.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * Verifies at startup that the JDBC stack is safe to drive from virtual threads.
+ * PgJDBC before 42.6.0 performs socket I/O inside synchronized blocks, which pins the
+ * carrier thread for the whole round trip, so startup is refused on those versions.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsCompatibilityCheck {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsCompatibilityCheck.class);
+    private static final int MIN_PGJDBC_MAJOR = 42;
+    private static final int MIN_PGJDBC_MINOR = 6;
+    private static final long MAX_RECOMMENDED_CONNECTION_TIMEOUT_MS = 5000;
+
+    private final DataSource dataSource;
+
+    public VirtualThreadsCompatibilityCheck(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void verify() throws SQLException {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 24) {
+            logger.warn("Virtual threads are enabled on Java {}. Blocking inside synchronized code pins carrier threads before Java 24; watch jdk.VirtualThreadPinned events.", javaVersion);
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (metaData.getDriverName().startsWith("PostgreSQL") && !isPinningSafePgJdbc(metaData)) {
+                throw new IllegalStateException("PostgreSQL JDBC driver " + metaData.getDriverVersion()
+                        + " pins virtual threads; version " + MIN_PGJDBC_MAJOR + "." + MIN_PGJDBC_MINOR + ".0 or newer is required");
+            }
+        }
+
+        if (dataSource instanceof HikariDataSource hikari) {
+            logger.info("Virtual threads enabled: requests share {} pooled JDBC connections and wait at most {} ms for one",
+                    hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+            if (hikari.getConnectionTimeout() > MAX_RECOMMENDED_CONNECTION_TIMEOUT_MS) {
+                logger.warn("Hikari connection-timeout of {} ms lets unbounded virtual-thread requests queue on the pool; consider {} ms or less",
+                        hikari.getConnectionTimeout(), MAX_RECOMMENDED_CONNECTION_TIMEOUT_MS);
+            }
+        }
+    }
+
+    private boolean isPinningSafePgJdbc(DatabaseMetaData metaData) {
+        int major = metaData.getDriverMajorVersion();
+        int minor = metaData.getDriverMinorVersion();
+        return major > MIN_PGJDBC_MAJOR || (major == MIN_PGJDBC_MAJOR && minor >= MIN_PGJDBC_MINOR);
+    }
+}
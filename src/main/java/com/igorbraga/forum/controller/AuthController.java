@@ -2,27 +2,29 @@ package com.igorbraga.forum.controller;
 
 import com.igorbraga.forum.domain.auth.AuthenticationDTO;
 import com.igorbraga.forum.domain.auth.RegisterDTO;
-import com.igorbraga.forum.domain.user.Role;
-import com.igorbraga.forum.domain.user.User;
 import com.igorbraga.forum.domain.auth.ApiResponse;
 import com.igorbraga.forum.domain.auth.AuthenticationResponseDTO;
-import com.igorbraga.forum.repository.RoleRepository;
 import com.igorbraga.forum.repository.UserRepository;
 import com.igorbraga.forum.security.JwtTokenProvider;
+import com.igorbraga.forum.security.PasswordHashingExecutor;
+import com.igorbraga.forum.service.UserRegistrationService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:3000")
@@ -31,44 +33,46 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
     private final JwtTokenProvider tokenProvider;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final UserRegistrationService userRegistrationService;
+    private final AsyncTaskExecutor taskExecutor;
 
-    public AuthController(AuthenticationManager authenticationManager, PasswordEncoder passwordEncoder, UserRepository userRepository, RoleRepository roleRepository, JwtTokenProvider tokenProvider) {
+    public AuthController(AuthenticationManager authenticationManager, PasswordEncoder passwordEncoder, UserRepository userRepository, JwtTokenProvider tokenProvider, PasswordHashingExecutor hashingExecutor, UserRegistrationService userRegistrationService,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor taskExecutor) {
         this.authenticationManager = authenticationManager;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
         this.tokenProvider = tokenProvider;
+        this.hashingExecutor = hashingExecutor;
+        this.userRegistrationService = userRegistrationService;
+        this.taskExecutor = taskExecutor;
     }
 
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody AuthenticationDTO requestData) throws AuthenticationException {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody AuthenticationDTO requestData) throws AuthenticationException {
         var loginToken = new UsernamePasswordAuthenticationToken(requestData.getLogin(), requestData.getPassword());
-        Authentication authentication = authenticationManager.authenticate(loginToken);
-        String jwt = tokenProvider.generateToken(authentication);
-        return ResponseEntity.ok(new AuthenticationResponseDTO(jwt));
+        return hashingExecutor.submit(PasswordHashingExecutor.Operation.LOGIN, () -> authenticationManager.authenticate(loginToken))
+                .thenApply(authentication -> {
+                    String jwt = tokenProvider.generateToken(authentication);
+                    return ResponseEntity.ok(new AuthenticationResponseDTO(jwt));
+                });
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterDTO requestData) {
-        if (userRepository.existsByUsernameOrEmail(requestData.getUsername(), requestData.getEmail())) {
-            return new ResponseEntity<>(new ApiResponse(false, "Username or Email is already taken!"),
-                    HttpStatus.BAD_REQUEST);
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody RegisterDTO requestData) {
+        if (userRepository.existsByLoginIn(List.of(requestData.getUsername(), requestData.getEmail()))) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(new ApiResponse(false, "Username or Email is already taken!"),
+                    HttpStatus.BAD_REQUEST));
         }
-        
-        User user = new User();
-        user.setUsername(requestData.getUsername());
-        user.setEmail(requestData.getEmail());
-        user.setPassword(passwordEncoder.encode(requestData.getPassword()));
 
-        Role role = roleRepository.findByName("ROLE_USER");
-        user.setRoles(Set.of(role));
-
-        userRepository.save(user);
-
-        return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse(true, "User registered successfully"));
+        // The insert runs on a task thread so it does not hold a hashing thread while it waits for the database.
+        return hashingExecutor.submit(PasswordHashingExecutor.Operation.REGISTER, () -> passwordEncoder.encode(requestData.getPassword()))
+                .thenApplyAsync(passwordHash -> {
+                    userRegistrationService.register(requestData, passwordHash);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse(true, "User registered successfully"));
+                }, taskExecutor);
     }
 
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
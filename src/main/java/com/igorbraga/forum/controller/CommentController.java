@@ -1,27 +1,62 @@
 package com.igorbraga.forum.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.igorbraga.forum.domain.comment.CommentActivity;
+import com.igorbraga.forum.domain.comment.CommentEvent;
+import com.igorbraga.forum.domain.comment.CommentPage;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.comment.CommentThreadPage;
+import com.igorbraga.forum.domain.comment.ThreadPosition;
+import com.igorbraga.forum.domain.comment.ThreadedComment;
 import com.igorbraga.forum.domain.comment.UpdateCommentDTO;
+import com.igorbraga.forum.domain.pagination.PublicationCursor;
+import com.igorbraga.forum.domain.post.PostVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.igorbraga.forum.domain.post.Post;
 import com.igorbraga.forum.domain.comment.Comment;
-import com.igorbraga.forum.domain.user.User;
 import com.igorbraga.forum.repository.PostRepository;
 import com.igorbraga.forum.repository.CommentRepository;
-import com.igorbraga.forum.repository.UserRepository;
+import com.igorbraga.forum.security.AuthenticatedUser;
+import com.igorbraga.forum.service.CommentEventBus;
+import com.igorbraga.forum.service.CommentIngestionService;
+import com.igorbraga.forum.service.HotPostRanking;
+import com.igorbraga.forum.service.PostQueryService;
 
 import jakarta.validation.Valid;
 
@@ -30,57 +65,186 @@ import jakarta.validation.Valid;
 public class CommentController {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
+    private final PostQueryService postQueryService;
+    private final CommentIngestionService commentIngestionService;
+    private final HotPostRanking hotPostRanking;
+    private final CommentEventBus commentEventBus;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter ndjsonWriter;
+    private final int maxThreadDepth;
 
-    public CommentController(CommentRepository commentRepository, PostRepository postRepository, UserRepository userRepository) {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_THREAD_DEPTH = 3;
+
+    public CommentController(CommentRepository commentRepository, PostRepository postRepository,
+                             PostQueryService postQueryService, CommentIngestionService commentIngestionService, HotPostRanking hotPostRanking,
+                             CommentEventBus commentEventBus, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                             @Value("${application.comments.maxThreadDepth}") int maxThreadDepth) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
-        this.userRepository = userRepository;
+        this.postQueryService = postQueryService;
+        this.commentIngestionService = commentIngestionService;
+        this.hotPostRanking = hotPostRanking;
+        this.commentEventBus = commentEventBus;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ndjsonWriter = objectMapper.writerFor(CommentSummary.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.maxThreadDepth = maxThreadDepth;
     }
 
     @GetMapping("/posts/{postId}/comments")
-    public ResponseEntity<List<Comment>> getCommentsByPostId(@PathVariable Long postId) {
-        if (!postRepository.existsById(postId)) {
+    public ResponseEntity<CommentPage> getCommentsByPostId(@PathVariable Long postId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "" + CommentPage.DEFAULT_SIZE) int size,
+                                                           WebRequest webRequest) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+
+        Optional<PostVersion> versionOptional = postRepository.findVersionById(postId);
+        if (versionOptional.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        List<Comment> comments = commentRepository.findByPostIdOrderByPublicationDate(postId);
-        return ResponseEntity.ok(comments);
+        PostVersion version = versionOptional.get();
+        String eTag = version.eTag("c" + pageSize + (cursor == null ? "" : "-" + cursor));
+        if (webRequest.checkNotModified(eTag, version.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        List<CommentSummary> comments;
+        if (cursor == null) {
+            comments = commentRepository.findSummariesByPostId(postId, limit);
+        } else {
+            PublicationCursor after = decodeCursor(cursor);
+            comments = commentRepository.findSummariesByPostIdAfter(postId, after.publicationDate(), after.id(), limit);
+        }
+
+        CommentPage page;
+        if (comments.size() <= pageSize) {
+            page = new CommentPage(comments, null);
+        } else {
+            CommentSummary last = comments.get(pageSize - 1);
+            page = new CommentPage(comments.subList(0, pageSize), new PublicationCursor(last.publicationDate(), last.id()).encode());
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(version.lastModified())
+                .body(page);
     }
 
-    
-    @PostMapping("/posts/{postId}/comments")
-    public ResponseEntity<Comment> createComment(@PathVariable Long postId,
-            @Valid @RequestBody Comment commentDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    @GetMapping(value = "/posts/{postId}/comments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCommentsByPostId(@PathVariable Long postId) {
+        if (!postRepository.existsById(postId)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = outputStream -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<CommentSummary> comments = commentRepository.streamSummariesByPostId(postId)) {
+                for (Iterator<CommentSummary> it = comments.iterator(); it.hasNext(); ) {
+                    ndjsonWriter.writeValue(outputStream, it.next());
+                    outputStream.write('\n');
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 
-        Post post = postRepository.findById(postId)
-                .orElse(null);
+    /**
+     * The post's comments as reply threads, depth-first, at most {@code depth} levels deep. Comments
+     * cut off by the depth limit still report their {@code replyCount}, and their replies can be
+     * loaded from {@code /comments/{commentId}/replies}.
+     */
+    @GetMapping("/posts/{postId}/comments/thread")
+    public ResponseEntity<CommentThreadPage> getCommentThread(@PathVariable Long postId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "50") int size,
+                                                              @RequestParam(defaultValue = "" + DEFAULT_THREAD_DEPTH) int depth,
+                                                              WebRequest webRequest) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int levels = threadLevels(depth);
 
-        if (post == null) {
-            return ResponseEntity.notFound().build(); 
+        Optional<PostVersion> versionOptional = postRepository.findVersionById(postId);
+        if (versionOptional.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        PostVersion version = versionOptional.get();
+        String eTag = version.eTag("t" + pageSize + "-" + levels + (cursor == null ? "" : "-" + cursor));
+        if (webRequest.checkNotModified(eTag, version.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
         }
 
-        User user = userRepository.findByUsernameOrEmail(authentication.getName(), authentication.getName())
-                .orElse(null);
+        String after = cursor == null ? "" : decodeThreadCursor(cursor);
+        List<ThreadedComment> comments = findThread(postId, 0, levels - 1, after, ThreadPosition.END, pageSize + 1);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(version.lastModified())
+                .body(threadPage(comments, pageSize));
+    }
+
+    /**
+     * Replies below a comment, depth-first, at most {@code depth} levels below it. The whole
+     * subtree is one range of the comments' path index, however deep the thread is.
+     */
+    @GetMapping("/comments/{commentId}/replies")
+    public ResponseEntity<CommentThreadPage> getReplies(@PathVariable Long commentId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int size,
+                                                        @RequestParam(defaultValue = "" + DEFAULT_THREAD_DEPTH) int depth) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int levels = threadLevels(depth);
+
+        Optional<ThreadPosition> positionOptional = commentRepository.findThreadPosition(commentId);
+        if (positionOptional.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ThreadPosition position = positionOptional.get();
+        String after = position.path();
+        if (cursor != null) {
+            String cursorPath = decodeThreadCursor(cursor);
+            after = cursorPath.compareTo(after) > 0 ? cursorPath : after;
+        }
+        List<ThreadedComment> replies = findThread(position.postId(), position.depth() + 1, position.depth() + levels,
+                after, position.subtreeEnd(), pageSize + 1);
+        return ResponseEntity.ok(threadPage(replies, pageSize));
+    }
 
-        if (user == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    @GetMapping(value = "/posts/{postId}/comments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToComments(@PathVariable Long postId,
+                                                          @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (!postRepository.existsById(postId)) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(commentEventBus.subscribe(postId, lastEventId));
+    }
 
-        Comment comment = new Comment();
-        comment.setContent(commentDTO.getContent());
-        comment.setPost(post);
-        comment.setAuthor(user);
+    @PostMapping("/posts/{postId}/comments")
+    public CompletableFuture<ResponseEntity<CommentSummary>> createComment(@PathVariable Long postId,
+            @Valid @RequestBody Comment commentDTO) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        Comment savedComment = commentRepository.save(comment);
-        return new ResponseEntity<>(savedComment, HttpStatus.CREATED);
+        Optional<AuthenticatedUser> principal = AuthenticatedUser.from(authentication);
+        if (principal.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+
+        return commentIngestionService.submit(postId, commentDTO.getParentId(), principal.get().toAuthorSummary(), commentDTO.getContent())
+                .thenApply(comment -> {
+                    commentEventBus.publish(postId, CommentEvent.created(commentDTO.getParentId(), comment));
+                    return ResponseEntity.status(HttpStatus.CREATED).body(comment);
+                });
     }
 
     @DeleteMapping("/comments/{commentId}")
+    @Transactional
     public ResponseEntity<Void> deleteComment(@PathVariable Long commentId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        Comment comment = commentRepository.findById(commentId)
+        Comment comment = commentRepository.findLockedById(commentId)
                 .orElse(null);
 
         if (comment == null) {
@@ -95,13 +259,25 @@ public class CommentController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        commentRepository.delete(comment);
+        // Replies go with the comment: its subtree is one range of paths.
+        Long postId = comment.getPost().getId();
+        ThreadPosition position = new ThreadPosition(commentId, postId, comment.getParentId(), comment.getPath(), comment.getDepth());
+        List<CommentActivity> removed = commentRepository.findActivityInThreadRange(postId, position.path(), position.subtreeEnd());
+        commentRepository.deleteThreadRange(postId, position.path(), position.subtreeEnd());
+        if (position.parentId() != null) {
+            commentRepository.addReplies(position.parentId(), -1);
+        }
+        postRepository.recordCommentActivity(postId, -removed.size(), LocalDateTime.now());
+        hotPostRanking.removeComments(postId, removed.stream().map(CommentActivity::publicationDate).toList());
+        postQueryService.evictPost(postId);
+        commentEventBus.publish(postId, CommentEvent.deleted(position.parentId(), commentId));
         return ResponseEntity.noContent().build();
     }
 
     
     @PutMapping("/comments/{commentId}")
-    public ResponseEntity<Comment> updateComment(@PathVariable Long commentId,
+    @Transactional
+    public ResponseEntity<CommentSummary> updateComment(@PathVariable Long commentId,
             @Valid @RequestBody UpdateCommentDTO updateBody) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
@@ -119,8 +295,56 @@ public class CommentController {
         }
 
         comment.setContent(updateBody.getContent());
-        Comment updatedComment = commentRepository.save(comment);
+        Comment updatedComment = commentRepository.saveAndFlush(comment);
+        postRepository.recordCommentActivity(comment.getPost().getId(), 0, updatedComment.getUpdatedAt());
+        postQueryService.evictPostDetail(comment.getPost().getId());
+        CommentSummary summary = new CommentSummary(updatedComment.getId(), updatedComment.getContent(),
+                updatedComment.getPublicationDate(), comment.getAuthor().getId(), comment.getAuthor().getUsername());
+        commentEventBus.publish(comment.getPost().getId(), CommentEvent.updated(comment.getParentId(), summary));
+
+        return ResponseEntity.ok(summary);
+    }
 
-        return ResponseEntity.ok(updatedComment);
+    private int threadLevels(int depth) {
+        return Math.min(Math.max(depth, 1), maxThreadDepth + 1);
+    }
+
+    /**
+     * Comments between the two paths at depths {@code fromDepth} to {@code toDepth}, depth-first. When the
+     * range can hold deeper comments, each depth is read from its own index range and the ranges are merged,
+     * so a shallow listing costs the same however many replies sit below its comments.
+     */
+    private List<ThreadedComment> findThread(Long postId, int fromDepth, int toDepth, String after, String before, int limit) {
+        if (toDepth >= maxThreadDepth) {
+            return commentRepository.findThreadRange(postId, after, before, Limit.of(limit));
+        }
+        List<ThreadedComment> merged = new ArrayList<>();
+        for (int depth = fromDepth; depth <= toDepth; depth++) {
+            merged.addAll(commentRepository.findThreadLevel(postId, depth, after, before, Limit.of(limit)));
+        }
+        merged.sort(Comparator.comparing(ThreadedComment::path));
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private static CommentThreadPage threadPage(List<ThreadedComment> comments, int pageSize) {
+        if (comments.size() <= pageSize) {
+            return new CommentThreadPage(comments, null);
+        }
+        return new CommentThreadPage(comments.subList(0, pageSize), comments.get(pageSize - 1).path());
+    }
+
+    private String decodeThreadCursor(String cursor) {
+        if (!ThreadPosition.isValidPath(cursor)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        return cursor;
+    }
+
+    private PublicationCursor decodeCursor(String cursor) {
+        try {
+            return PublicationCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
 }
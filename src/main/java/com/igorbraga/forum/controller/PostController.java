@@ -1,21 +1,32 @@
 package com.igorbraga.forum.controller;
 
+import com.igorbraga.forum.domain.pagination.PublicationCursor;
+import com.igorbraga.forum.domain.post.HotPostPage;
 import com.igorbraga.forum.domain.post.Post;
+import com.igorbraga.forum.domain.post.PostImportRequest;
+import com.igorbraga.forum.domain.post.PostImportResult;
+import com.igorbraga.forum.domain.post.PostPage;
 import com.igorbraga.forum.domain.post.PostResponseDTO;
-import com.igorbraga.forum.domain.post.PostSummary;
+import com.igorbraga.forum.domain.post.PostSearchPage;
+import com.igorbraga.forum.domain.post.PostVersion;
 import com.igorbraga.forum.domain.post.UpdatePostDTO;
-import com.igorbraga.forum.domain.user.User;
 import com.igorbraga.forum.repository.PostRepository;
-import com.igorbraga.forum.repository.UserRepository;
+import com.igorbraga.forum.security.AuthenticatedUser;
+import com.igorbraga.forum.service.HotPostRanking;
+import com.igorbraga.forum.service.PostImportService;
+import com.igorbraga.forum.service.PostQueryService;
+import com.igorbraga.forum.service.PostViewCounter;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
@@ -29,41 +40,104 @@ import java.util.Optional;
 @RequestMapping("/api/posts")
 public class PostController {
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
-
-    public PostController(PostRepository postRepository, UserRepository userRepository) {
+    private final PostQueryService postQueryService;
+    private final PostImportService postImportService;
+    private final HotPostRanking hotPostRanking;
+    private final PostViewCounter postViewCounter;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_PAGE = 50;
+    private static final int MAX_HOT_PAGE = 50;
+    private static final int MAX_SEARCH_QUERY_LENGTH = 200;
+
+    public PostController(PostRepository postRepository, PostQueryService postQueryService, PostImportService postImportService,
+                          HotPostRanking hotPostRanking, PostViewCounter postViewCounter) {
         this.postRepository = postRepository;
-        this.userRepository = userRepository;
+        this.postQueryService = postQueryService;
+        this.postImportService = postImportService;
+        this.hotPostRanking = hotPostRanking;
+        this.postViewCounter = postViewCounter;
     }
 
     @GetMapping
-    public List<PostSummary> getAllPosts() {
-        return postRepository.findAllPostSummaries();
+    public ResponseEntity<PostPage> getAllPosts(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int size,
+                                                WebRequest webRequest) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        PublicationCursor after = cursor == null ? null : decodeCursor(cursor);
+        PostPage page = postQueryService.getFeedPage(after, pageSize);
+
+        String eTag = page.eTag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(page);
     }
 
 
-    @PostMapping
-    public ResponseEntity<Post> createBlogPost(@Valid @RequestBody Post post) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    @GetMapping("/search")
+    public ResponseEntity<PostSearchPage> searchPosts(@RequestParam("q") String query,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int size) {
+        if (query.isBlank() || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must be between 1 and " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.min(Math.max(page, 0), MAX_SEARCH_PAGE);
+        return ResponseEntity.ok(postQueryService.search(query.strip(), pageNumber, pageSize));
+    }
+
+
+    @GetMapping("/hot")
+    public ResponseEntity<HotPostPage> getHotPosts(@RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.min(Math.max(page, 0), MAX_HOT_PAGE);
+        return ResponseEntity.ok(postQueryService.getHotPage(pageNumber, pageSize));
+    }
 
-        String currentUsername = authentication.getName();
-        User author = userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + currentUsername));
 
-        post.setAuthor(author);
+    @PostMapping
+    public ResponseEntity<PostResponseDTO> createBlogPost(@Valid @RequestBody Post post) {
+        AuthenticatedUser principal = currentUser(SecurityContextHolder.getContext().getAuthentication());
+
+        post.setAuthor(principal.toUserReference());
         post.setPublicationDate(LocalDateTime.now());
+        post.setCommentCount(0);
+        post.setVersion(null);
         Post savedPost = postRepository.save(post);
-        return new ResponseEntity<>(savedPost, HttpStatus.CREATED);
+        postQueryService.evictFeed();
+        postQueryService.evictPost(savedPost.getId());
+        PostResponseDTO created = new PostResponseDTO(savedPost.getId(), savedPost.getTitle(), savedPost.getContent(),
+                savedPost.getPublicationDate(), principal.toUserResponse(), 0, List.of());
+        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    }
+
+
+    @PostMapping("/import")
+    public ResponseEntity<PostImportResult> importPosts(@Valid @RequestBody PostImportRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(postImportService.importPosts(request.posts()));
     }
 
 
     @GetMapping("/{id}")
-    public ResponseEntity<PostResponseDTO> getPostById(@PathVariable Long id) {
-        Optional<Post> postOptional = postRepository.findById(id);
-        return postOptional
-                .map(post -> ResponseEntity.ok(
-                        new PostResponseDTO(post.getId(), post.getTitle(), post.getContent(), post.getPublicationDate(), post.getAuthor(), post.getComments()
-                        )))
+    public ResponseEntity<PostResponseDTO> getPostById(@PathVariable Long id, WebRequest webRequest) {
+        Optional<PostVersion> versionOptional = postRepository.findVersionById(id);
+        if (versionOptional.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // A revalidated view is still a view. Counts are not part of the weak validator, so they never defeat a 304.
+        postViewCounter.record(id);
+        PostVersion version = versionOptional.get();
+        if (webRequest.checkNotModified(version.weakETag(), version.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return postQueryService.getPostDetail(id, version)
+                .map(post -> ResponseEntity.ok()
+                        .eTag(version.weakETag())
+                        .lastModified(version.lastModified())
+                        .body(post))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -92,34 +166,48 @@ public class PostController {
         }
 
         postRepository.deleteById(id);
+        hotPostRanking.removePost(id);
+        postQueryService.evictPost(id);
+        postQueryService.evictFeed();
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
 
     @PutMapping("/{id}")
-    public ResponseEntity<Post> updatePost(@PathVariable Long id, @Valid @RequestBody UpdatePostDTO updatePostDto) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = authentication.getName();
-
-        User authenticatedUser = userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found during post update: " + currentUsername));
+    public ResponseEntity<PostResponseDTO> updatePost(@PathVariable Long id, @Valid @RequestBody UpdatePostDTO updatePostDto) {
+        AuthenticatedUser principal = currentUser(SecurityContextHolder.getContext().getAuthentication());
 
         Post postToUpdate = postRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found with id: " + id));
 
-        boolean isAdmin = authentication.getAuthorities().stream()
-                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
-
-
-        if (!isAdmin && (postToUpdate.getAuthor() == null || !postToUpdate.getAuthor().getId().equals(authenticatedUser.getId()))) {
+        if (!principal.hasRole("ROLE_ADMIN") && (postToUpdate.getAuthor() == null || !postToUpdate.getAuthor().getId().equals(principal.id()))) {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
 
         postToUpdate.setTitle(updatePostDto.getTitle());
         postToUpdate.setContent(updatePostDto.getContent());
 
-        Post updatedPost = postRepository.save(postToUpdate);
-        return ResponseEntity.ok(updatedPost);
+        postRepository.save(postToUpdate);
+        postQueryService.evictPost(id);
+        // Reloaded through the detail cache, so the GET that usually follows an edit is a hit.
+        return postQueryService.getPostDetail(id)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found with id: " + id));
+    }
+
+
+    private AuthenticatedUser currentUser(Authentication authentication) {
+        return AuthenticatedUser.from(authentication)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + authentication.getName()));
+    }
+
+
+    private PublicationCursor decodeCursor(String cursor) {
+        try {
+            return PublicationCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
 
 
@@ -135,6 +223,14 @@ public class PostController {
         return errors;
     }
 
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public Map<String, String> handleConcurrentEdit(ObjectOptimisticLockingFailureException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "The post was changed by another request, reload it and try again.");
+        return error;
+    }
+
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     @ExceptionHandler(UsernameNotFoundException.class)
     public Map<String, String> handleUsernameNotFoundException(UsernameNotFoundException ex) {
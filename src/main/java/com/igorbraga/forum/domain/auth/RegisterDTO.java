@@ -2,6 +2,7 @@ package com.igorbraga.forum.domain.auth;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
@@ -9,6 +10,7 @@ import lombok.Data;
 public class RegisterDTO {
     @NotBlank(message = "Username cannot be blank")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
+    @Pattern(regexp = "[^@]*", message = "Username cannot contain '@'")
     private String username;
 
     @NotBlank(message = "Username cannot be blank")
@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +15,8 @@ import java.time.LocalDateTime;
 @Table(name = "comments")
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Content cannot be blank")
@@ -25,6 +27,13 @@ public class Comment {
     @Column(nullable = false, updatable = false)
     private LocalDateTime publicationDate;
 
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "user_id", nullable = false)
     private User author;
@@ -33,8 +42,36 @@ public class Comment {
     @JoinColumn(name = "post_id", nullable = false)
     private Post post;
 
+    @Column(updatable = false)
+    private Long parentId;
+
+    @ThreadPath
+    @Column(nullable = false, updatable = false, length = 1024)
+    private String path;
+
+    @Column(nullable = false, updatable = false)
+    private int depth;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int replyCount;
+
+    public void placeUnder(ThreadPosition parent) {
+        parentId = parent.id();
+        path = parent.path();
+        depth = parent.depth() + 1;
+    }
+
     @PrePersist
     protected void onCreate() {
-        publicationDate = LocalDateTime.now();
+        if (publicationDate == null) {
+            publicationDate = LocalDateTime.now();
+        }
+        updatedAt = publicationDate;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
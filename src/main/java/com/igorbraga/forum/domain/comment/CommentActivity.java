@@ -0,0 +1,6 @@
+package com.igorbraga.forum.domain.comment;
+
+import java.time.LocalDateTime;
+
+public record CommentActivity(Long postId, LocalDateTime publicationDate) {
+}
@@ -0,0 +1,19 @@
+package com.igorbraga.forum.domain.comment;
+
+public record CommentEvent(String type, Long commentId, Long parentId, CommentSummary comment) {
+    public static final String CREATED = "comment-created";
+    public static final String UPDATED = "comment-updated";
+    public static final String DELETED = "comment-deleted";
+
+    public static CommentEvent created(Long parentId, CommentSummary comment) {
+        return new CommentEvent(CREATED, comment.id(), parentId, comment);
+    }
+
+    public static CommentEvent updated(Long parentId, CommentSummary comment) {
+        return new CommentEvent(UPDATED, comment.id(), parentId, comment);
+    }
+
+    public static CommentEvent deleted(Long parentId, Long commentId) {
+        return new CommentEvent(DELETED, commentId, parentId, null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.igorbraga.forum.domain.comment;
+
+import java.util.List;
+
+public record CommentPage(List<CommentSummary> comments, String nextCursor) {
+    /**
+     * Comments per page by default, also the number embedded in a post's detail.
+     */
+    public static final int DEFAULT_SIZE = 50;
+}
@@ -0,0 +1,12 @@
+package com.igorbraga.forum.domain.comment;
+
+import com.igorbraga.forum.domain.user.AuthorSummary;
+
+import java.time.LocalDateTime;
+
+public record CommentSummary(Long id, String content, LocalDateTime publicationDate, AuthorSummary author) {
+
+    public CommentSummary(Long id, String content, LocalDateTime publicationDate, Long authorId, String authorUsername) {
+        this(id, content, publicationDate, new AuthorSummary(authorId, authorUsername));
+    }
+}
@@ -0,0 +1,5 @@
+package com.igorbraga.forum.domain.comment;
+
+import java.util.List;
+
+public record CommentThreadPage(List<ThreadedComment> comments, String nextCursor) { }
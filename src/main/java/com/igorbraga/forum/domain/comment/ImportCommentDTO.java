@@ -0,0 +1,15 @@
+package com.igorbraga.forum.domain.comment;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+public record ImportCommentDTO(
+        @NotBlank(message = "Comment cannot be blank")
+        @Size(min = 3, message = "Comment content must be more than 3 characters")
+        String content,
+        @NotBlank(message = "Comment author cannot be blank")
+        String authorUsername,
+        LocalDateTime publicationDate) {
+}
@@ -0,0 +1,19 @@
+package com.igorbraga.forum.domain.comment;
+
+import org.hibernate.annotations.ValueGenerationType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Completes a comment's materialized path on insert by appending the comment's own id to the
+ * ancestors' path already set on the field. The id is only known once the sequence has assigned
+ * it, which is after {@code @PrePersist} runs.
+ */
+@ValueGenerationType(generatedBy = ThreadPathGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ThreadPath {
+}
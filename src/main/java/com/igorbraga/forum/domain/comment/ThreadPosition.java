@@ -0,0 +1,29 @@
+package com.igorbraga.forum.domain.comment;
+
+/**
+ * Where a comment sits in its post's reply tree. Paths are runs of fixed-width decimal segments,
+ * so they compare the same way under any collation.
+ */
+public record ThreadPosition(Long id, Long postId, Long parentId, String path, int depth) {
+    public static final int SEGMENT_LENGTH = 19;
+    /**
+     * Exclusive upper bound of every path. All digits like the paths, and above any id's segment.
+     */
+    public static final String END = "9".repeat(SEGMENT_LENGTH);
+
+    public static String segment(long id) {
+        return String.format("%019d", id);
+    }
+
+    public static boolean isValidPath(String path) {
+        return !path.isEmpty() && path.length() % SEGMENT_LENGTH == 0 && path.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * Exclusive upper bound of this comment's subtree: the path of its next possible sibling.
+     * Every descendant's path starts with this comment's path and sorts below the bound.
+     */
+    public String subtreeEnd() {
+        return path.substring(0, path.length() - SEGMENT_LENGTH) + segment(id + 1);
+    }
+}
@@ -0,0 +1,15 @@
+package com.igorbraga.forum.domain.comment;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.igorbraga.forum.domain.user.AuthorSummary;
+
+import java.time.LocalDateTime;
+
+public record ThreadedComment(Long id, Long parentId, int depth, int replyCount, String content,
+                              LocalDateTime publicationDate, AuthorSummary author, @JsonIgnore String path) {
+
+    public ThreadedComment(Long id, Long parentId, int depth, int replyCount, String content,
+                           LocalDateTime publicationDate, Long authorId, String authorUsername, String path) {
+        this(id, parentId, depth, replyCount, content, publicationDate, new AuthorSummary(authorId, authorUsername), path);
+    }
+}
@@ -0,0 +1,22 @@
+package com.igorbraga.forum.domain.post;
+
+import com.igorbraga.forum.domain.comment.ImportCommentDTO;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ImportPostDTO(
+        @NotBlank(message = "Title cannot be blank")
+        @Size(min = 3, max = 255, message = "Title must be between 3 and 255 characters")
+        String title,
+        @NotBlank(message = "Content cannot be blank")
+        String content,
+        @NotBlank(message = "Post author cannot be blank")
+        String authorUsername,
+        LocalDateTime publicationDate,
+        @Size(max = 1000, message = "At most 1000 comments can be imported per post")
+        List<@Valid ImportCommentDTO> comments) {
+}
@@ -0,0 +1,32 @@
+package com.igorbraga.forum.domain.post;
+
+import com.igorbraga.forum.domain.comment.CommentPage;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The post's own columns of a {@link PostResponseDTO}, with the author as an id like {@link PostSummaryRow},
+ * and the version they were read at.
+ */
+public record PostDetailRow(Long id, String title, String content, LocalDateTime publicationDate, Long authorId, long viewCount,
+                            Long version, long revision, LocalDateTime updatedAt) {
+
+    public PostVersion toVersion() {
+        return new PostVersion(id, version, revision, updatedAt);
+    }
+
+    public PostDetailRow withAddedViews(long views) {
+        return views == 0 ? this : new PostDetailRow(id, title, content, publicationDate, authorId, viewCount + views, version, revision, updatedAt);
+    }
+
+    public PostResponseDTO toResponse(UserResponseDTO author, List<CommentSummary> comments) {
+        return new PostResponseDTO(id, title, content, publicationDate, author, viewCount, comments);
+    }
+
+    public PostResponseDTO toResponse(UserResponseDTO author, CommentPage comments) {
+        return new PostResponseDTO(id, title, content, publicationDate, author, viewCount, comments.comments(), comments.nextCursor());
+    }
+}
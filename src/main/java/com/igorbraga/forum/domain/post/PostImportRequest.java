@@ -0,0 +1,33 @@
+package com.igorbraga.forum.domain.post;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record PostImportRequest(
+        @NotEmpty(message = "Nothing to import")
+        @Size(max = 5000, message = "At most 5000 posts can be imported per request")
+        List<@Valid ImportPostDTO> posts) {
+
+    public static final int MAX_COMMENTS = 50_000;
+
+    /**
+     * Bounds the rows one request can insert, on top of the per-post limit in {@link ImportPostDTO}.
+     */
+    @AssertTrue(message = "At most " + MAX_COMMENTS + " comments can be imported per request")
+    public boolean isWithinCommentLimit() {
+        if (posts == null) {
+            return true;
+        }
+        long comments = 0;
+        for (ImportPostDTO post : posts) {
+            if (post != null && post.comments() != null) {
+                comments += post.comments().size();
+            }
+        }
+        return comments <= MAX_COMMENTS;
+    }
+}
@@ -0,0 +1,4 @@
+package com.igorbraga.forum.domain.post;
+
+public record PostImportResult(int posts, int comments) {
+}
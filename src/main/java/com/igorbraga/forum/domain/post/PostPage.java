@@ -0,0 +1,23 @@
+package com.igorbraga.forum.domain.post;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public record PostPage(List<PostSummary> posts, String nextCursor) {
+
+    /**
+     * Weak, because view counts are left out of the validator.
+     */
+    public String eTag() {
+        StringBuilder validator = new StringBuilder();
+        for (PostSummary post : posts) {
+            validator.append(post.getId()).append(':')
+                    .append(post.getUpdatedAt()).append(':')
+                    .append(post.getCommentCount()).append(';');
+        }
+        validator.append(nextCursor);
+        return "W/\"" + DigestUtils.md5DigestAsHex(validator.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -1,14 +1,11 @@
 package com.igorbraga.forum.domain.post;
 
-import com.igorbraga.forum.domain.comment.Comment;
-import com.igorbraga.forum.domain.user.Role;
-import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.domain.comment.CommentSummary;
 import com.igorbraga.forum.domain.user.UserResponseDTO;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Data
 public class PostResponseDTO {
@@ -17,22 +14,26 @@ public class PostResponseDTO {
     private final String content;
     private final LocalDateTime publicationDate;
     private final UserResponseDTO author;
-    private final List<Comment> comments;
+    private final long viewCount;
+    private final List<CommentSummary> comments;
+    /**
+     * Cursor for {@code /api/posts/{id}/comments} when the post has more comments than are embedded here.
+     */
+    private final String nextCommentsCursor;
 
-    public PostResponseDTO(Long id, String title, String content, LocalDateTime publicationDate, User author, List<Comment> comments) {
-        final UserResponseDTO authorDTO = new UserResponseDTO(
-                author.getId(),
-                author.getUsername(),
-                author.getEmail(),
-                author.getRoles()
-                        .stream()
-                        .map(Role::getName)
-                        .collect(Collectors.toUnmodifiableSet()));
+    public PostResponseDTO(Long id, String title, String content, LocalDateTime publicationDate, UserResponseDTO author, long viewCount, List<CommentSummary> comments) {
+        this(id, title, content, publicationDate, author, viewCount, comments, null);
+    }
+
+    public PostResponseDTO(Long id, String title, String content, LocalDateTime publicationDate, UserResponseDTO author, long viewCount,
+                           List<CommentSummary> comments, String nextCommentsCursor) {
         this.id = id;
         this.title = title;
         this.content = content;
         this.publicationDate = publicationDate;
-        this.author = authorDTO;
-        this.comments = comments;
+        this.author = author;
+        this.viewCount = viewCount;
+        this.comments = List.copyOf(comments);
+        this.nextCommentsCursor = nextCommentsCursor;
     }
 }
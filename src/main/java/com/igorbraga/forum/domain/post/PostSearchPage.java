@@ -0,0 +1,6 @@
+package com.igorbraga.forum.domain.post;
+
+import java.util.List;
+
+public record PostSearchPage(List<PostSummary> posts, int page, boolean hasNext) {
+}
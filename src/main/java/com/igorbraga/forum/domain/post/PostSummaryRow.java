@@ -0,0 +1,21 @@
+package com.igorbraga.forum.domain.post;
+
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * The post's own columns of a {@link PostSummary}, which is what the summary cache holds. The author is
+ * only an id, resolved once per distinct author by {@link com.igorbraga.forum.service.AuthorDirectory}.
+ */
+public record PostSummaryRow(Long id, String title, LocalDateTime publicationDate, LocalDateTime updatedAt,
+                             Long authorId, long commentCount, long viewCount) {
+
+    public PostSummary toSummary(UserResponseDTO author) {
+        return new PostSummary(id, title, publicationDate, updatedAt, author, commentCount, viewCount);
+    }
+
+    public PostSummaryRow withAddedViews(long views) {
+        return views == 0 ? this : new PostSummaryRow(id, title, publicationDate, updatedAt, authorId, commentCount, viewCount + views);
+    }
+}
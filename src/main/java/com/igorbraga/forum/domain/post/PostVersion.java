@@ -0,0 +1,30 @@
+package com.igorbraga.forum.domain.post;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * What a post's validators are derived from: its JPA version for edits and its revision for bulk updates.
+ */
+public record PostVersion(Long id, Long version, long revision, LocalDateTime updatedAt) {
+
+    public String eTag() {
+        return "\"p" + id + "-" + version + "." + revision + "-" + lastModified().toEpochMilli() + "\"";
+    }
+
+    /**
+     * Weak validator for representations that also carry view counts, which change without a new version.
+     */
+    public String weakETag() {
+        return "W/" + eTag();
+    }
+
+    public String eTag(String variant) {
+        return "\"p" + id + "-" + version + "." + revision + "-" + lastModified().toEpochMilli() + "-" + variant + "\"";
+    }
+
+    public Instant lastModified() {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
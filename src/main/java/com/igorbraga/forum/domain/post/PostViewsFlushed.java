@@ -0,0 +1,10 @@
+package com.igorbraga.forum.domain.post;
+
+import java.util.Map;
+
+/**
+ * Views just written to the database, per post id. Empty when the write failed. Always follows a
+ * {@link PostViewsFlushing}.
+ */
+public record PostViewsFlushed(Map<Long, Long> views) {
+}
@@ -0,0 +1,7 @@
+package com.igorbraga.forum.domain.post;
+
+/**
+ * Views are about to be written to the database, ended by a {@link PostViewsFlushed}.
+ */
+public record PostViewsFlushing() {
+}
@@ -0,0 +1,6 @@
+package com.igorbraga.forum.domain.user;
+
+/**
+ * One of an author's roles with the author's columns, or a null role for an author without any.
+ */
+public record AuthorRow(Long id, String username, String email, String role) { }
@@ -0,0 +1,3 @@
+package com.igorbraga.forum.domain.user;
+
+public record AuthorSummary(Long id, String username) { }
@@ -19,7 +19,8 @@ import java.util.stream.Collectors;
 @Table(name = "users") 
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 20)
     private Long id;
 
     @NotBlank(message = "Username cannot be blank")
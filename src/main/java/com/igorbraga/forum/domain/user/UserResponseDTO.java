@@ -1,5 +1,32 @@
 package com.igorbraga.forum.domain.user;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-public record UserResponseDTO(Long id, String username, String email, Set<String> roles) {}
+public record UserResponseDTO(Long id, String username, String email, Set<String> roles) {
+    // Users share a handful of role combinations, so every DTO points at one of a few sets.
+    private static final Map<Set<String>, Set<String>> ROLE_SETS = new ConcurrentHashMap<>();
+
+    public static UserResponseDTO of(Long id, String username, String email, Collection<String> roles) {
+        return new UserResponseDTO(id, username, email, internRoles(roles));
+    }
+
+    public static UserResponseDTO from(User user) {
+        return of(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getRoles()
+                        .stream()
+                        .map(Role::getName)
+                        .toList());
+    }
+
+    private static Set<String> internRoles(Collection<String> roles) {
+        Set<String> set = Set.copyOf(roles);
+        Set<String> interned = ROLE_SETS.putIfAbsent(set, set);
+        return interned == null ? set : interned;
+    }
+}
@@ -0,0 +1,31 @@
+package com.igorbraga.forum.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is open.
+ * Registered as Hibernate's statement inspector; {@link JdbcStatementMetricsFilter} opens and
+ * closes a count around each request.
+ */
+public class JdbcStatementCounter implements StatementInspector {
+    private static final ThreadLocal<int[]> currentCount = new ThreadLocal<>();
+
+    public static void start() {
+        currentCount.set(new int[1]);
+    }
+
+    public static int stop() {
+        int[] count = currentCount.get();
+        currentCount.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = currentCount.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -1,13 +1,98 @@
 package com.igorbraga.forum.repository;
 
 import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.domain.comment.CommentActivity;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.comment.ThreadPosition;
+import com.igorbraga.forum.domain.comment.ThreadedComment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByPostIdOrderByPublicationDate(Long postId);
+    /**
+     * A page of the post's comments from the (post_id, publication_date, id) index. Like the other comment
+     * reads, it is ordered by the whole index so that it is read in order rather than sorted.
+     */
+    @Query("SELECT new com.igorbraga.forum.domain.comment.CommentSummary(c.id, c.content, c.publicationDate, a.id, a.username) FROM Comment c JOIN c.author a WHERE c.post.id = :postId ORDER BY c.post.id, c.publicationDate, c.id")
+    List<CommentSummary> findSummariesByPostId(Long postId, Limit limit);
+
+    @Query("SELECT new com.igorbraga.forum.domain.comment.CommentSummary(c.id, c.content, c.publicationDate, a.id, a.username) FROM Comment c JOIN c.author a WHERE c.post.id = :postId AND (c.publicationDate, c.id) > (:publicationDate, :id) ORDER BY c.post.id, c.publicationDate, c.id")
+    List<CommentSummary> findSummariesByPostIdAfter(Long postId, LocalDateTime publicationDate, Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.igorbraga.forum.domain.comment.CommentSummary(c.id, c.content, c.publicationDate, a.id, a.username) FROM Comment c JOIN c.author a WHERE c.post.id = :postId ORDER BY c.post.id, c.publicationDate, c.id")
+    Stream<CommentSummary> streamSummariesByPostId(Long postId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.igorbraga.forum.domain.comment.CommentActivity(c.post.id, c.publicationDate) FROM Comment c WHERE c.publicationDate > :since")
+    Stream<CommentActivity> streamActivitySince(LocalDateTime since);
+
+    /**
+     * Comments published in {@code (from, to]} on posts that have no hot score snapshot row.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.igorbraga.forum.domain.comment.CommentActivity(c.post.id, c.publicationDate) FROM Comment c " +
+           "WHERE c.publicationDate > :from AND c.publicationDate <= :to " +
+           "AND NOT EXISTS (SELECT 1 FROM PostHotScore s WHERE s.postId = c.post.id)")
+    Stream<CommentActivity> streamUnrankedActivityBetween(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new com.igorbraga.forum.domain.comment.ThreadPosition(c.id, c.post.id, c.parentId, c.path, c.depth) FROM Comment c WHERE c.id = :id")
+    Optional<ThreadPosition> findThreadPosition(Long id);
+
+    /**
+     * Share-locks the comments until the transaction ends, so replies placed under them cannot race a
+     * subtree delete, which locks the deleted comment first (see {@link #findLockedById}).
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT new com.igorbraga.forum.domain.comment.ThreadPosition(c.id, c.post.id, c.parentId, c.path, c.depth) FROM Comment c WHERE c.id IN :ids")
+    List<ThreadPosition> findThreadPositions(Collection<Long> ids);
+
+    /**
+     * The comment, locked for the rest of the transaction. Deleting a subtree under this lock waits for replies
+     * being placed under the comment to commit, so its range delete sees them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Comment> findLockedById(Long id);
+
+    /**
+     * Comments whose path lies strictly between {@code after} and {@code before}, in depth-first order.
+     * With the bounds of a {@link ThreadPosition} this is one range of the (post_id, path) index.
+     */
+    @Query("SELECT new com.igorbraga.forum.domain.comment.ThreadedComment(c.id, c.parentId, c.depth, c.replyCount, c.content, c.publicationDate, a.id, a.username, c.path) FROM Comment c JOIN c.author a WHERE c.post.id = :postId AND c.path > :after AND c.path < :before ORDER BY c.path")
+    List<ThreadedComment> findThreadRange(Long postId, String after, String before, Limit limit);
+
+    /**
+     * The comments of {@link #findThreadRange} at one depth. This is one range of the (post_id, depth, path)
+     * index, so the deeper replies in between are never read. It is ordered by the whole index so that
+     * databases which only match an ORDER BY against an index prefix still read it without sorting.
+     */
+    @Query("SELECT new com.igorbraga.forum.domain.comment.ThreadedComment(c.id, c.parentId, c.depth, c.replyCount, c.content, c.publicationDate, a.id, a.username, c.path) FROM Comment c JOIN c.author a WHERE c.post.id = :postId AND c.depth = :depth AND c.path > :after AND c.path < :before ORDER BY c.post.id, c.depth, c.path")
+    List<ThreadedComment> findThreadLevel(Long postId, int depth, String after, String before, Limit limit);
+
+    @Query("SELECT new com.igorbraga.forum.domain.comment.CommentActivity(c.post.id, c.publicationDate) FROM Comment c WHERE c.post.id = :postId AND c.path >= :from AND c.path < :before")
+    List<CommentActivity> findActivityInThreadRange(Long postId, String from, String before);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id = :postId AND c.path >= :from AND c.path < :before")
+    int deleteThreadRange(Long postId, String from, String before);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id = :id")
+    int addReplies(Long id, int delta);
 }
@@ -0,0 +1,17 @@
+package com.igorbraga.forum.repository;
+
+import com.igorbraga.forum.domain.post.PostHotScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface PostHotScoreRepository extends JpaRepository<PostHotScore, Long> {
+
+    @Modifying
+    @Query("DELETE FROM PostHotScore s WHERE s.postId IN :postIds")
+    int deleteByPostIds(Collection<Long> postIds);
+}
@@ -1,19 +1,76 @@
 package com.igorbraga.forum.repository;
 
-import com.igorbraga.forum.domain.post.PostSummary;
+import com.igorbraga.forum.domain.pagination.PublicationCursor;
+import com.igorbraga.forum.domain.post.PostDetailRow;
+import com.igorbraga.forum.domain.post.PostSummaryRow;
+import com.igorbraga.forum.domain.post.PostVersion;
 import com.igorbraga.forum.domain.post.Post;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
-    @Query("SELECT new com.igorbraga.forum.domain.post.PostSummary(p.id, p.title, p.publicationDate, p.author, COUNT(c.id)) FROM Post p INNER JOIN p.author LEFT JOIN p.comments c GROUP BY p.id, p.title, p.publicationDate, p.author ORDER BY p.publicationDate DESC")
-    List<PostSummary> findAllPostSummaries();
+    @Query("SELECT new com.igorbraga.forum.domain.pagination.PublicationCursor(p.publicationDate, p.id) FROM Post p ORDER BY p.publicationDate DESC, p.id DESC")
+    List<PublicationCursor> findFeedEntries(Limit limit);
 
-    
-    
+    @Query("SELECT new com.igorbraga.forum.domain.pagination.PublicationCursor(p.publicationDate, p.id) FROM Post p WHERE (p.publicationDate, p.id) < (:publicationDate, :id) ORDER BY p.publicationDate DESC, p.id DESC")
+    List<PublicationCursor> findFeedEntriesBefore(LocalDateTime publicationDate, Long id, Limit limit);
+
+    @Query("SELECT new com.igorbraga.forum.domain.post.PostSummaryRow(p.id, p.title, p.publicationDate, COALESCE(p.updatedAt, p.publicationDate), p.author.id, p.commentCount, p.viewCount) FROM Post p WHERE p.id IN :ids")
+    List<PostSummaryRow> findPostSummaryRowsByIds(Collection<Long> ids);
+
+    /**
+     * Ranks posts whose title/content or comments match a web-style search query, using the
+     * GIN-indexed search_vector columns maintained by PostgreSQL (see db/migration/postgresql).
+     * Comment matches count for half of a post match.
+     */
+    @Query(value = """
+            SELECT ranked.post_id FROM (
+                SELECT p.id AS post_id, ts_rank_cd(p.search_vector, q.query) AS rank
+                FROM posts p, websearch_to_tsquery('english', :query) AS q(query)
+                WHERE p.search_vector @@ q.query
+                UNION ALL
+                SELECT c.post_id, ts_rank_cd(c.search_vector, q.query) * 0.5
+                FROM comments c, websearch_to_tsquery('english', :query) AS q(query)
+                WHERE c.search_vector @@ q.query
+            ) ranked
+            GROUP BY ranked.post_id
+            ORDER BY SUM(ranked.rank) DESC, ranked.post_id DESC
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<Long> searchPostIds(String query, int limit, int offset);
+
+    @Query("SELECT new com.igorbraga.forum.domain.post.PostDetailRow(p.id, p.title, p.content, p.publicationDate, p.author.id, p.viewCount, p.version, p.revision, COALESCE(p.updatedAt, p.publicationDate)) FROM Post p WHERE p.id = :id")
+    Optional<PostDetailRow> findDetailRowById(Long id);
+
+    @Query("SELECT new com.igorbraga.forum.domain.post.PostVersion(p.id, p.version, p.revision, COALESCE(p.updatedAt, p.publicationDate)) FROM Post p WHERE p.id = :id")
+    Optional<PostVersion> findVersionById(Long id);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    /**
+     * Bumps the post's revision along with {@code updatedAt}, so that two comment writes within the
+     * same millisecond still change its ETag. The JPA version is left alone, so an edit or delete that
+     * loaded the post before the comment landed still succeeds.
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :commentDelta, p.updatedAt = :updatedAt, p.revision = p.revision + 1 WHERE p.id = :id")
+    int recordCommentActivity(Long id, long commentDelta, LocalDateTime updatedAt);
+
+    /**
+     * Corrects drifted comment counters, bumping the validators of the corrected posts like a comment write would.
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.post = p), p.updatedAt = :updatedAt, p.revision = p.revision + 1 WHERE p.commentCount <> (SELECT COUNT(c) FROM Comment c WHERE c.post = p)")
+    int reconcileCommentCounts(LocalDateTime updatedAt);
 }
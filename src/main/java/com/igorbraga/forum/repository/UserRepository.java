@@ -1,13 +1,37 @@
 package com.igorbraga.forum.repository;
 
+import com.igorbraga.forum.domain.user.AuthorRow;
+import com.igorbraga.forum.domain.user.AuthorSummary;
 import com.igorbraga.forum.domain.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsernameOrEmail(String username, String email);
-    Boolean existsByUsernameOrEmail(String username, String email);
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.id = :id")
+    Optional<User> findWithRolesById(Long id);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.username = :username")
+    Optional<User> findWithRolesByUsername(String username);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.email = :email")
+    Optional<User> findWithRolesByEmail(String email);
+
+    /**
+     * Whether any of the values is taken as a username or as an email, in either column, so that no
+     * login can ever resolve to two accounts.
+     */
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.username IN :logins OR u.email IN :logins")
+    boolean existsByLoginIn(Collection<String> logins);
+
+    @Query("SELECT new com.igorbraga.forum.domain.user.AuthorSummary(u.id, u.username) FROM User u WHERE u.username IN :usernames")
+    List<AuthorSummary> findAuthorsByUsernameIn(Collection<String> usernames);
+
+    @Query("SELECT new com.igorbraga.forum.domain.user.AuthorRow(u.id, u.username, u.email, r.name) FROM User u LEFT JOIN u.roles r WHERE u.id IN :ids")
+    List<AuthorRow> findAuthorRowsByIdIn(Collection<Long> ids);
 }
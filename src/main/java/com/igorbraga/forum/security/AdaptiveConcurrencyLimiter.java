@@ -0,0 +1,141 @@
+package com.igorbraga.forum.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the API requests in flight, and moves the cap with how well the server is coping.
+ * <p>
+ * Every {@code adjustInterval} it takes the mean time requests waited for a database connection,
+ * from HikariCP's {@code hikaricp.connections.acquire} timer, and the mean request latency. If
+ * either is over its threshold, the limit is cut by a quarter, down to {@code minLimit}. If both
+ * are under and requests used the whole limit, it grows by a twentieth, up to {@code maxLimit}.
+ * Requests over the limit are shed with 503 before they queue for the database.
+ * <p>
+ * Taking and releasing a slot are single atomic operations, and latency is summed in
+ * {@link LongAdder}s, so the request path never locks or allocates.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    private static final String CONNECTION_ACQUIRE_TIMER = "hikaricp.connections.acquire";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final long connectionWaitThresholdNanos;
+    private final Counter shed;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private volatile int limit;
+    private volatile boolean saturated;
+
+    private Timer connectionAcquire;
+    private long lastAcquireCount;
+    private double lastAcquireNanos;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${application.loadshedding.enabled}") boolean enabled,
+                                      @Value("${application.loadshedding.minLimit}") int minLimit,
+                                      @Value("${application.loadshedding.maxLimit}") int maxLimit,
+                                      @Value("${application.loadshedding.latencyThreshold}") long latencyThresholdMs,
+                                      @Value("${application.loadshedding.connectionWaitThreshold}") long connectionWaitThresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.connectionWaitThresholdNanos = TimeUnit.MILLISECONDS.toNanos(connectionWaitThresholdMs);
+        this.limit = maxLimit;
+
+        this.shed = Counter.builder("loadshedding.rejected")
+                .description("API requests rejected with 503 because the concurrency limit was reached")
+                .register(meterRegistry);
+        meterRegistry.gauge("loadshedding.limit", this, limiter -> limiter.limit);
+        meterRegistry.gauge("loadshedding.inflight", inFlight);
+    }
+
+    /**
+     * Takes a slot, or returns false when the limit is reached. Every slot taken must be
+     * {@linkplain #release(long) released}.
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        int current = inFlight.incrementAndGet();
+        if (current <= limit) {
+            return true;
+        }
+        inFlight.decrementAndGet();
+        if (!saturated) {
+            saturated = true;
+        }
+        shed.increment();
+        return false;
+    }
+
+    public void release(long startedAt) {
+        if (!enabled) {
+            return;
+        }
+        inFlight.decrementAndGet();
+        latencyNanos.add(System.nanoTime() - startedAt);
+        completed.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${application.loadshedding.adjustInterval}")
+    public void adjust() {
+        if (!enabled) {
+            return;
+        }
+        long requests = completed.sumThenReset();
+        long totalLatency = latencyNanos.sumThenReset();
+        long meanLatency = requests == 0 ? 0 : totalLatency / requests;
+        long meanConnectionWait = meanConnectionWait();
+
+        int current = limit;
+        if (meanLatency > latencyThresholdNanos || meanConnectionWait > connectionWaitThresholdNanos) {
+            int reduced = Math.max(minLimit, current - Math.max(1, current / 4));
+            if (reduced < current) {
+                logger.warn("Lowering the concurrency limit to {}: mean latency {} ms, mean connection wait {} ms",
+                        reduced, TimeUnit.NANOSECONDS.toMillis(meanLatency), TimeUnit.NANOSECONDS.toMillis(meanConnectionWait));
+            }
+            limit = reduced;
+        } else if (saturated || inFlight.get() >= current) {
+            limit = Math.min(maxLimit, current + Math.max(1, current / 20));
+        }
+        saturated = false;
+    }
+
+    private long meanConnectionWait() {
+        if (connectionAcquire == null) {
+            // Registered by Spring Boot once the pool has started.
+            connectionAcquire = meterRegistry.find(CONNECTION_ACQUIRE_TIMER).timer();
+            if (connectionAcquire == null) {
+                return 0;
+            }
+        }
+        long count = connectionAcquire.count();
+        double total = connectionAcquire.totalTime(TimeUnit.NANOSECONDS);
+        long acquired = count - lastAcquireCount;
+        double waited = total - lastAcquireNanos;
+        lastAcquireCount = count;
+        lastAcquireNanos = total;
+        return acquired <= 0 ? 0 : (long) (waited / acquired);
+    }
+}
@@ -0,0 +1,54 @@
+package com.igorbraga.forum.security;
+
+import com.igorbraga.forum.domain.user.AuthorSummary;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The slice of a {@link User} that authenticated requests need: id, names and authorities.
+ * Cached by {@link PrincipalCache} and set as the authentication details by
+ * {@link JwtAuthenticationFilter}, so controllers never have to look the caller up again.
+ */
+public record AuthenticatedUser(Long id, String username, String email, List<GrantedAuthority> authorities) {
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getEmail(), user.getAuthorities());
+    }
+
+    public static Optional<AuthenticatedUser> from(Authentication authentication) {
+        return authentication != null && authentication.getDetails() instanceof AuthenticatedUser principal
+                ? Optional.of(principal)
+                : Optional.empty();
+    }
+
+    public boolean hasRole(String role) {
+        return authorities.stream().anyMatch(authority -> authority.getAuthority().equals(role));
+    }
+
+    /**
+     * A detached {@link User} carrying only the id and names. Hibernate only needs the id to write a
+     * foreign key, so this can be set as an author without loading the user row.
+     */
+    public User toUserReference() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        return user;
+    }
+
+    public AuthorSummary toAuthorSummary() {
+        return new AuthorSummary(id, username);
+    }
+
+    public UserResponseDTO toUserResponse() {
+        return UserResponseDTO.of(id, username, email, authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+    }
+}
@@ -1,6 +1,8 @@
 package com.igorbraga.forum.security;
 
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,23 +12,33 @@ import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import com.igorbraga.forum.service.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final Timer validClaimsTimer;
+    private final Timer invalidClaimsTimer;
+    private final Timer principalLookupTimer;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService, PrincipalCache principalCache, MeterRegistry meterRegistry) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.validClaimsTimer = claimsTimer(meterRegistry, "valid");
+        this.invalidClaimsTimer = claimsTimer(meterRegistry, "invalid");
+        this.principalLookupTimer = Timer.builder("auth.jwt.principal.lookup")
+                .description("Time to resolve the user behind a verified token")
+                .register(meterRegistry);
     }
 
     @Override
@@ -37,11 +49,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtTokenFromRequest(request);
             if (!StringUtils.hasText(jwt)) return;
 
+            long parseStart = System.nanoTime();
             Claims claims = tokenProvider.getJWTClaims(jwt);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.get("username", String.class));
+            (claims == null ? invalidClaimsTimer : validClaimsTimer).record(System.nanoTime() - parseStart, TimeUnit.NANOSECONDS);
+            if (claims == null) return;
+            // Tokens issued before subjects were user ids carry none, and must be renewed by logging in again.
+            if (claims.getSubject() == null) return;
 
-            var authentication = new UsernamePasswordAuthenticationToken(userDetails.getUsername(), null, userDetails.getAuthorities());
-            authentication.setDetails(userDetails);
+            Long userId = Long.valueOf(claims.getSubject());
+            AuthenticatedUser principal = principalLookupTimer.record(
+                    () -> principalCache.get(userId, id -> AuthenticatedUser.of(userDetailsService.loadUserById(id))));
+
+            var authentication = new UsernamePasswordAuthenticationToken(principal.username(), null, principal.authorities());
+            authentication.setDetails(principal);
             SecurityContextHolder.getContext().setAuthentication(authentication);
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -51,6 +71,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     }
 
+    private static Timer claimsTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.jwt.claims")
+                .description("Time to parse and verify a bearer token, or read it from the verified-token cache")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     private String getJwtTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,5 +1,10 @@
 package com.igorbraga.forum.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.igorbraga.forum.domain.user.User;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import io.jsonwebtoken.Jwts;
@@ -13,14 +18,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -34,8 +43,15 @@ public class JwtTokenProvider {
     @Value("${application.jwt.tokenExpiration}")
     private int jwtExpirationInMs;
 
+    @Value("${application.jwt.verifiedTokenCacheMaxSize}")
+    private long verifiedTokenCacheMaxSize;
+
     private SecretKey jwtSecretKey;
 
+    private JwtParser jwtParser;
+
+    private Cache<String, Claims> verifiedTokens;
+
     @PostConstruct
     public void init() {
         if (jwtSecretString == null || jwtSecretString.length() < 64) {
@@ -44,10 +60,22 @@ public class JwtTokenProvider {
         } else {
             this.jwtSecretKey = Keys.hmacShaKeyFor(jwtSecretString.getBytes());
         }
+        this.jwtParser = Jwts.parser()
+                .verifyWith(jwtSecretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
 
+    /**
+     * Issues a token whose subject is the user's id, which is what requests are resolved by.
+     */
     public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        if (!(authentication.getPrincipal() instanceof User userPrincipal)) {
+            throw new IllegalArgumentException("Tokens can only be issued to forum users");
+        }
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
@@ -62,6 +90,7 @@ public class JwtTokenProvider {
 
         return Jwts.builder()
                 .claims(claims)
+                .subject(userPrincipal.getId().toString())
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(jwtSecretKey) 
@@ -70,11 +99,17 @@ public class JwtTokenProvider {
 
     public Claims getJWTClaims(String authToken) {
         try {
-            return Jwts.parser()
-                    .verifyWith(jwtSecretKey)
-                    .build()
-                    .parseSignedClaims(authToken)
-                    .getPayload();
+            String tokenHash = hashToken(authToken);
+            Claims cachedClaims = verifiedTokens.getIfPresent(tokenHash);
+            if (cachedClaims != null) {
+                return cachedClaims;
+            }
+
+            Claims claims = jwtParser.parseSignedClaims(authToken).getPayload();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(tokenHash, claims);
+            }
+            return claims;
         } catch (SignatureException ex) { 
             logger.error("Invalid JWT signature: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -88,4 +123,34 @@ public class JwtTokenProvider {
         }
         return null;
     }
+
+    private static String hashToken(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(authToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenHash, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
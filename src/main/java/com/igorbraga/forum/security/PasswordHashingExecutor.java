@@ -0,0 +1,122 @@
+package com.igorbraga.forum.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a dedicated bounded pool so a burst of logins
+ * cannot occupy every request thread. When the queue is full the work is rejected immediately
+ * with 503 instead of waiting behind other hashes.
+ */
+@Component
+public class PasswordHashingExecutor {
+    private final ThreadPoolExecutor executor;
+    private final Map<Operation, Timer> queueTimes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> hashTimes = new EnumMap<>(Operation.class);
+    private final Counter rejected;
+    private final long retryAfterSeconds;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${application.security.passwordHashingThreads}") int threads,
+                                   @Value("${application.security.passwordHashingQueueCapacity}") int queueCapacity,
+                                   @Value("${application.security.passwordHashingRetryAfter}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.rejected = Counter.builder("auth.password.hashing.rejected")
+                .description("Password hashing tasks rejected because the hashing queue was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("auth.password.hashing.queue.depth", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+        for (Operation operation : Operation.values()) {
+            queueTimes.put(operation, Timer.builder("auth.password.hashing.queue.time")
+                    .description("Time a hashing task waited for a hashing thread")
+                    .tag("operation", operation.tag)
+                    .register(meterRegistry));
+            hashTimes.put(operation, Timer.builder("auth.password.hashing.duration")
+                    .description("Time spent running a hashing task")
+                    .tag("operation", operation.tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Runs the task on a hashing thread. Dependent stages added without an executor run there too,
+     * so anything slow that follows the hash, such as a database write, belongs on another executor.
+     */
+    public <T> CompletableFuture<T> submit(Operation operation, Supplier<T> task) {
+        Timer queueTime = queueTimes.get(operation);
+        Timer hashTime = hashTimes.get(operation);
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueTime.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return hashTime.record(task);
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new HashingOverloadedException(retryAfterSeconds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public enum Operation {
+        LOGIN("login"),
+        REGISTER("register");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    static class HashingOverloadedException extends ResponseStatusException {
+        private final long retryAfterSeconds;
+
+        HashingOverloadedException(long retryAfterSeconds) {
+            super(HttpStatus.SERVICE_UNAVAILABLE, "Authentication is temporarily overloaded, try again shortly");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return headers;
+        }
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.igorbraga.forum.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+public class PrincipalCache {
+    private final Cache<Long, AuthenticatedUser> principals;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PrincipalCache(@Value("${application.security.principalCacheTtl}") long ttlInMs,
+                          @Value("${application.security.principalCacheMaxSize}") long maxSize) {
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlInMs))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public AuthenticatedUser get(Long userId, Function<Long, AuthenticatedUser> loader) {
+        // Load outside Caffeine's compute lock so the user query never runs while a monitor is held.
+        AuthenticatedUser cached = principals.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        // A load that overlaps an eviction may have read the state being evicted, so it is not cached.
+        long evictionsBefore = evictions.get();
+        AuthenticatedUser loaded = loader.apply(userId);
+        if (evictions.get() == evictionsBefore) {
+            principals.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    public void evict(Long userId) {
+        evictions.incrementAndGet();
+        principals.invalidate(userId);
+    }
+
+    public void evictAll() {
+        evictions.incrementAndGet();
+        principals.invalidateAll();
+    }
+}
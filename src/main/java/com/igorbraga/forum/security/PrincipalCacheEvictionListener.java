@@ -0,0 +1,87 @@
+package com.igorbraga.forum.security;
+
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.service.AuthorDirectory;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cached principals and author DTOs whenever a {@link User} row or its role collection
+ * changes. Cached posts only hold their authors' ids, so they stay cached. Registered as a native
+ * Hibernate listener because JPA callbacks do not fire for collection-only updates such as granting a role.
+ * <p>
+ * These events fire at flush, while the old row is still what other transactions read, so the
+ * eviction is deferred until the transaction commits. Evicting earlier would let a concurrent
+ * request cache the old roles again for the whole TTL.
+ */
+@Component
+public class PrincipalCacheEvictionListener implements PostUpdateEventListener, PostDeleteEventListener, PostCollectionUpdateEventListener {
+    private final PrincipalCache principalCache;
+    private final AuthorDirectory authorDirectory;
+
+    public PrincipalCacheEvictionListener(PrincipalCache principalCache, AuthorDirectory authorDirectory,
+                                          EntityManagerFactory entityManagerFactory) {
+        this.principalCache = principalCache;
+        this.authorDirectory = authorDirectory;
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        evictIfUser(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        evictIfUser(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        evictIfUser(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void evictIfUser(Object entity) {
+        if (!(entity instanceof User user)) {
+            return;
+        }
+        Long userId = user.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    private void evict(Long userId) {
+        principalCache.evict(userId);
+        authorDirectory.evict(userId);
+    }
+}
@@ -0,0 +1,183 @@
+package com.igorbraga.forum.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles API requests right after {@link JwtAuthenticationFilter}. Each route group has its own
+ * {@link TokenBucketPolicy}:
+ * <ul>
+ *     <li>auth: login and registration, which cost a BCrypt hash, keyed by remote address;</li>
+ *     <li>write: every other non-GET request;</li>
+ *     <li>read: every other GET request.</li>
+ * </ul>
+ * Write and read buckets are keyed by the user id of a verified token, or by remote address for
+ * anonymous requests. An empty bucket is answered with 429 and a {@code Retry-After} of when the
+ * next token is due. Requests that pass then take a slot from {@link AdaptiveConcurrencyLimiter}
+ * and are answered with 503 when none is left. Comment event streams only go through the rate
+ * limit, as they are long-lived and capped by {@code eventStreamMaxSubscribers}, which is sized
+ * to leave part of Tomcat's connections to the API (see {@code CommentEventBus}).
+ * <p>
+ * Behind a reverse proxy, set {@code server.forward-headers-strategy} so that the remote address
+ * is the client's and not the proxy's.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final boolean enabled;
+    private final long shedRetryAfterSeconds;
+    private final TokenBucketPolicy auth;
+    private final TokenBucketPolicy write;
+    private final TokenBucketPolicy read;
+    private final Map<TokenBucketPolicy, Counter> throttled;
+
+    public RateLimitFilter(AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           MeterRegistry meterRegistry,
+                           @Value("${application.ratelimit.enabled}") boolean enabled,
+                           @Value("${application.ratelimit.authRate}") double authRate,
+                           @Value("${application.ratelimit.authBurst}") int authBurst,
+                           @Value("${application.ratelimit.writeRate}") double writeRate,
+                           @Value("${application.ratelimit.writeBurst}") int writeBurst,
+                           @Value("${application.ratelimit.readRate}") double readRate,
+                           @Value("${application.ratelimit.readBurst}") int readBurst,
+                           @Value("${application.loadshedding.retryAfter}") long shedRetryAfterSeconds) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.enabled = enabled;
+        this.shedRetryAfterSeconds = shedRetryAfterSeconds;
+        this.auth = new TokenBucketPolicy("auth", authRate, authBurst);
+        this.write = new TokenBucketPolicy("write", writeRate, writeBurst);
+        this.read = new TokenBucketPolicy("read", readRate, readBurst);
+
+        this.throttled = Map.of(
+                auth, registerMeters(meterRegistry, auth),
+                write, registerMeters(meterRegistry, write),
+                read, registerMeters(meterRegistry, read));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long now = System.nanoTime();
+        String path = request.getRequestURI();
+        if (enabled) {
+            TokenBucketPolicy policy = policyFor(request, path);
+            long waitNanos = policy.tryAcquire(policy == auth ? request.getRemoteAddr() : clientKey(request), now);
+            if (waitNanos > 0) {
+                throttled.get(policy).increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+                return;
+            }
+        }
+
+        if (path.endsWith("/comments/stream")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, shedRetryAfterSeconds);
+            return;
+        }
+        boolean releasedLater = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Logins and comment writes finish on another thread, and hold their slot until then.
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(now));
+                releasedLater = true;
+            }
+        } finally {
+            if (!releasedLater) {
+                concurrencyLimiter.release(now);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.ratelimit.idleSweepInterval}")
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        auth.evictFull(now);
+        write.evictFull(now);
+        read.evictFull(now);
+    }
+
+    private TokenBucketPolicy policyFor(HttpServletRequest request, String path) {
+        if (path.startsWith("/api/auth/")) {
+            return auth;
+        }
+        return HttpMethod.GET.matches(request.getMethod()) ? read : write;
+    }
+
+    private static Object clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof AuthenticatedUser principal) {
+            return principal.id();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static Counter registerMeters(MeterRegistry meterRegistry, TokenBucketPolicy policy) {
+        meterRegistry.gauge("ratelimit.clients", Tags.of("route", policy.route()), policy, TokenBucketPolicy::clients);
+        return Counter.builder("ratelimit.rejected")
+                .description("API requests rejected with 429 because the client's token bucket was empty")
+                .tag("route", policy.route())
+                .register(meterRegistry);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.sendError(status.value(), status.getReasonPhrase());
+    }
+
+    private final class ReleaseOnCompletion implements AsyncListener {
+        private final long startedAt;
+
+        private ReleaseOnCompletion(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            concurrencyLimiter.release(startedAt);
+        }
+
+        // Timed-out and failed requests still complete, and are released then.
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
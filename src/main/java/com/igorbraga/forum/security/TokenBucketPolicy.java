@@ -0,0 +1,66 @@
+package com.igorbraga.forum.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One token bucket per client for a group of routes, refilled at {@code permitsPerSecond} and
+ * holding at most {@code burst} tokens.
+ * <p>
+ * A bucket is a single long: the time at which it will be full again, as in the generic cell rate
+ * algorithm. Taking a token pushes that time one refill interval further, and is refused when that
+ * would put it more than {@code burst} intervals ahead of now. So a request costs one CAS on the
+ * client's counter, with no lock and no allocation once the client has a bucket. A bucket that is
+ * full again behaves like a new one, so idle clients can be dropped at any time.
+ */
+final class TokenBucketPolicy {
+    private final String route;
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    TokenBucketPolicy(String route, double permitsPerSecond, int burst) {
+        this.route = route;
+        this.refillIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstNanos = refillIntervalNanos * burst;
+    }
+
+    String route() {
+        return route;
+    }
+
+    /**
+     * Takes a token from the client's bucket. Returns 0 when one was taken, otherwise how many
+     * nanoseconds until the next token.
+     */
+    long tryAcquire(Object client, long now) {
+        AtomicLong fullAt = buckets.get(client);
+        if (fullAt == null) {
+            fullAt = buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + refillIntervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that are full again. A client racing with the removal gets at most one
+     * extra token.
+     */
+    void evictFull(long now) {
+        buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+    }
+
+    int clients() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,85 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.config.CacheConfig;
+import com.igorbraga.forum.config.GuardedCaffeineCache;
+import com.igorbraga.forum.domain.user.AuthorRow;
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+import com.igorbraga.forum.repository.UserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Author DTOs for post responses, cached by user id. Posts only select their author's id, and the
+ * authors missing from the cache are loaded in one query per batch, so building a page allocates
+ * per distinct author rather than per post, and every post by an author shares one DTO. Like the post
+ * caches, a load that overlaps the eviction of its author is not stored.
+ */
+@Service
+public class AuthorDirectory {
+    private final UserRepository userRepository;
+    private final Cache authors;
+    private final GuardedCaffeineCache guardedAuthors;
+
+    public AuthorDirectory(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.authors = Objects.requireNonNull(cacheManager.getCache(CacheConfig.POST_AUTHORS));
+        this.guardedAuthors = GuardedCaffeineCache.of(authors);
+    }
+
+    /**
+     * Drops the cached author right away, for a change that has already committed.
+     */
+    public void evict(Long id) {
+        authors.evictIfPresent(id);
+    }
+
+    public UserResponseDTO getAuthor(Long id) {
+        return id == null ? null : getAuthors(List.of(id)).get(id);
+    }
+
+    /**
+     * The authors with the given ids, skipping nulls and unknown ids.
+     */
+    public Map<Long, UserResponseDTO> getAuthors(Collection<Long> ids) {
+        Map<Long, UserResponseDTO> resolved = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            if (id == null || resolved.containsKey(id)) {
+                continue;
+            }
+            UserResponseDTO cached = authors.get(id, UserResponseDTO.class);
+            if (cached != null) {
+                resolved.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        Map<Long, Long> generations = new HashMap<>();
+        missing.forEach(id -> generations.put(id, guardedAuthors.generation(id)));
+        Map<Long, List<AuthorRow>> rowsByAuthor = new HashMap<>();
+        for (AuthorRow row : userRepository.findAuthorRowsByIdIn(missing)) {
+            rowsByAuthor.computeIfAbsent(row.id(), id -> new ArrayList<>()).add(row);
+        }
+        rowsByAuthor.forEach((id, rows) -> {
+            List<String> roles = rows.stream().map(AuthorRow::role).filter(Objects::nonNull).toList();
+            UserResponseDTO author = UserResponseDTO.of(id, rows.getFirst().username(), rows.getFirst().email(), roles);
+            guardedAuthors.putIfUnchanged(id, author, generations.get(id));
+            resolved.put(id, author);
+        });
+        return resolved;
+    }
+}
@@ -0,0 +1,33 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class CommentCountReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountReconciler.class);
+    private final PostRepository postRepository;
+    private final PostQueryService postQueryService;
+
+    public CommentCountReconciler(PostRepository postRepository, PostQueryService postQueryService) {
+        this.postRepository = postRepository;
+        this.postQueryService = postQueryService;
+    }
+
+    @Scheduled(initialDelayString = "${application.posts.commentCountReconcileInterval}",
+               fixedDelayString = "${application.posts.commentCountReconcileInterval}")
+    @Transactional
+    public void reconcile() {
+        int corrected = postRepository.reconcileCommentCounts(LocalDateTime.now());
+        if (corrected > 0) {
+            logger.info("Reconciled comment counters on {} posts", corrected);
+            postQueryService.evictAllPosts();
+        }
+    }
+}
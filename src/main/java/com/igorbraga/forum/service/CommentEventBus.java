@@ -0,0 +1,319 @@
+package com.igorbraga.forum.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igorbraga.forum.domain.comment.CommentEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process fan-out of comment events to Server-Sent Events subscribers, one channel per post.
+ * <p>
+ * Publishing never blocks on a client. Each event is serialized once, then offered to every
+ * subscriber's bounded queue. A subscriber is drained by at most one virtual thread at a time,
+ * so a slow socket only parks that thread. A subscriber whose queue is full is disconnected and
+ * resumes from the channel's history on reconnect. An idle connection costs one async request
+ * and an empty queue, with no thread.
+ * <p>
+ * Event ids increase across the whole process, starting from the wall clock so they keep
+ * increasing across restarts. Each channel keeps its last {@code eventReplaySize} events for
+ * {@code eventReplayRetention} after its last subscriber leaves. A {@code Last-Event-ID} that
+ * is still covered gets the missed events replayed. Otherwise the client gets a
+ * {@code resync} event and should reload the thread.
+ * <p>
+ * Every subscriber holds one of Tomcat's {@code server.tomcat.max-connections} for as long as it
+ * stays open, and streams are not counted by the concurrency limiter. {@code eventStreamMaxSubscribers}
+ * must therefore stay well below {@code max-connections}: once streams hold them all, Tomcat stops
+ * accepting connections and API requests queue in the accept backlog instead of being answered.
+ * The defaults keep 12000 of 20000 connections for streams and the rest for API clients and their
+ * idle keep-alive connections. Raise both together.
+ */
+@Service
+public class CommentEventBus {
+    private static final String RESYNC = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int replaySize;
+    private final long replayRetentionMs;
+    private final long streamTimeoutMs;
+    private final int maxSubscribers;
+    private final long retryAfterSeconds;
+
+    private final Map<Long, PostChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong eventSequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter evicted;
+
+    public CommentEventBus(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${application.comments.eventBufferSize}") int bufferSize,
+                           @Value("${application.comments.eventReplaySize}") int replaySize,
+                           @Value("${application.comments.eventReplayRetention}") long replayRetentionMs,
+                           @Value("${application.comments.eventStreamTimeout}") long streamTimeoutMs,
+                           @Value("${application.comments.eventStreamMaxSubscribers}") int maxSubscribers,
+                           @Value("${application.comments.eventStreamRetryAfter}") long retryAfterSeconds) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.replayRetentionMs = replayRetentionMs;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.evicted = Counter.builder("comments.events.evicted")
+                .description("Event stream subscribers disconnected because they fell too far behind")
+                .register(meterRegistry);
+        meterRegistry.gauge("comments.events.subscribers", subscriberCount);
+        meterRegistry.gaugeMapSize("comments.events.channels", List.of(), channels);
+    }
+
+    /**
+     * Opens a stream of the post's comment events. Events after {@code lastEventId} are replayed
+     * first when the channel still holds them.
+     */
+    public SseEmitter subscribe(Long postId, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new StreamsExhaustedException(retryAfterSeconds);
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(streamTimeoutMs));
+        // Commits the response headers right away instead of on the first event.
+        subscriber.offer(StreamedEvent.CONNECTED);
+        // Joins the channel within the map update, so heartbeat cannot drop it as idle in between.
+        PostChannel channel = channels.compute(postId, (id, existing) -> {
+            PostChannel joined = existing != null ? existing : new PostChannel(eventSequence.get());
+            synchronized (joined) {
+                joined.replay(subscriber, lastEventId);
+                joined.subscribers.add(subscriber);
+            }
+            return joined;
+        });
+        subscriber.emitter.onCompletion(() -> unsubscribe(channel, subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(channel, subscriber));
+        subscriber.emitter.onError(ex -> unsubscribe(channel, subscriber));
+        return subscriber.emitter;
+    }
+
+    /**
+     * Publishes an event to the post's subscribers. Inside a transaction, delivery waits for the
+     * commit, so clients never see a change that was rolled back.
+     */
+    public void publish(Long postId, CommentEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(postId, event);
+                }
+            });
+        } else {
+            dispatch(postId, event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.comments.eventStreamHeartbeat}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        channels.forEach((postId, channel) -> {
+            if (channel.subscribers.isEmpty()) {
+                channels.computeIfPresent(postId, (id, current) -> {
+                    synchronized (current) {
+                        return current.subscribers.isEmpty() && now - current.idleSince > replayRetentionMs ? null : current;
+                    }
+                });
+                return;
+            }
+            channel.subscribers.forEach(subscriber -> subscriber.offer(StreamedEvent.HEARTBEAT));
+        });
+    }
+
+    /**
+     * Ends every stream as soon as the context starts closing, so that graceful shutdown does not
+     * wait for them to time out. Clients reconnect with their {@code Last-Event-ID}.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> senders.execute(subscriber.emitter::complete)));
+        senders.shutdown();
+    }
+
+    private void dispatch(Long postId, CommentEvent event) {
+        PostChannel channel = channels.get(postId);
+        if (channel == null) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize comment event", ex);
+        }
+        synchronized (channel) {
+            StreamedEvent streamed = new StreamedEvent(eventSequence.incrementAndGet(), event.type(), json);
+            channel.append(streamed);
+            channel.subscribers.forEach(subscriber -> subscriber.offer(streamed));
+        }
+    }
+
+    private void unsubscribe(PostChannel channel, Subscriber subscriber) {
+        synchronized (channel) {
+            if (channel.subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+                channel.idleSince = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private record StreamedEvent(long id, String name, String data) {
+        static final StreamedEvent CONNECTED = new StreamedEvent(0, null, "connected");
+        static final StreamedEvent HEARTBEAT = new StreamedEvent(0, null, "keepalive");
+        static final StreamedEvent RESYNC_REQUIRED = new StreamedEvent(0, RESYNC, "{}");
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment(data);
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data);
+            return id == 0 ? builder : builder.id(Long.toString(id));
+        }
+    }
+
+    private final class PostChannel {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final ArrayDeque<StreamedEvent> history = new ArrayDeque<>();
+        private long trimmedUpTo;
+        private volatile long idleSince = System.currentTimeMillis();
+
+        private PostChannel(long createdAt) {
+            this.trimmedUpTo = createdAt;
+        }
+
+        private void append(StreamedEvent event) {
+            history.addLast(event);
+            if (history.size() > replaySize) {
+                trimmedUpTo = history.removeFirst().id();
+            }
+        }
+
+        private void replay(Subscriber subscriber, String lastEventId) {
+            if (lastEventId == null) {
+                return;
+            }
+            long after;
+            try {
+                after = Long.parseLong(lastEventId.strip());
+            } catch (NumberFormatException ex) {
+                subscriber.offer(StreamedEvent.RESYNC_REQUIRED);
+                return;
+            }
+            if (after < trimmedUpTo) {
+                subscriber.offer(StreamedEvent.RESYNC_REQUIRED);
+                return;
+            }
+            List<StreamedEvent> missed = new ArrayList<>();
+            for (StreamedEvent event : history) {
+                if (event.id() > after) {
+                    missed.add(event);
+                }
+            }
+            if (missed.size() >= bufferSize - 1) {
+                subscriber.offer(StreamedEvent.RESYNC_REQUIRED);
+                return;
+            }
+            missed.forEach(subscriber::offer);
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamedEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(StreamedEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                closed = true;
+                evicted.increment();
+                // A sender stuck on the full socket holds the emitter's lock, so complete elsewhere.
+                senders.execute(emitter::complete);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                StreamedEvent event = queue.poll();
+                if (event == null) {
+                    draining.set(false);
+                    if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (closed) {
+                    continue;
+                }
+                try {
+                    emitter.send(event.toSse());
+                } catch (IOException | IllegalStateException ex) {
+                    closed = true;
+                    emitter.completeWithError(ex);
+                }
+            }
+        }
+    }
+
+    static class StreamsExhaustedException extends ResponseStatusException {
+        private final long retryAfterSeconds;
+
+        StreamsExhaustedException(long retryAfterSeconds) {
+            super(HttpStatus.SERVICE_UNAVAILABLE, "Too many open comment streams, retry later");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.comment.ThreadPosition;
+import com.igorbraga.forum.domain.post.Post;
+import com.igorbraga.forum.domain.user.AuthorSummary;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.repository.CommentRepository;
+import com.igorbraga.forum.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes new comments. In batched mode, requests are queued and a single flusher inserts them
+ * in JDBC batches, one transaction per batch, with sequence-assigned ids. That is one pooled
+ * connection per batch instead of one per comment.
+ * <p>
+ * A caller's future completes only after the batch holding its comment has committed, so a
+ * 201 always means the comment is durable. Comments still queued when the process dies were
+ * never acknowledged, and the client sees a failed request. When the queue is full, new
+ * comments are rejected at once with 503 instead of piling up. So are comments still queued when
+ * the service shuts down and the flusher cannot write them in time.
+ * <p>
+ * With batching disabled, each comment is written on the caller's thread as a batch of one.
+ * <p>
+ * A reply is placed under its parent's path in the same batch, with one lookup for all parents
+ * in the batch. Replies nested deeper than {@code maxThreadDepth} are rejected.
+ */
+@Service
+public class CommentIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(CommentIngestionService.class);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final PostQueryService postQueryService;
+    private final HotPostRanking hotPostRanking;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final boolean batched;
+    private final int maxBatchSize;
+    private final long maxBatchDelayMs;
+    private final long retryAfterSeconds;
+    private final int maxThreadDepth;
+    private final BlockingQueue<PendingComment> queue;
+
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+    private final Timer flushTime;
+    private final Timer commitLatency;
+
+    // Submitters hold the read lock from the accepting check to the offer, so once shutdown has
+    // flipped the flag under the write lock, nothing can be queued behind the flusher's last poll.
+    private final ReadWriteLock acceptingLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting = true;
+    private Thread flusher;
+
+    public CommentIngestionService(PostRepository postRepository,
+                                   CommentRepository commentRepository,
+                                   PostQueryService postQueryService,
+                                   HotPostRanking hotPostRanking,
+                                   EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${application.comments.batchedIngestion}") boolean batched,
+                                   @Value("${application.comments.ingestionQueueCapacity}") int queueCapacity,
+                                   @Value("${application.comments.ingestionMaxBatchSize}") int maxBatchSize,
+                                   @Value("${application.comments.ingestionMaxBatchDelay}") long maxBatchDelayMs,
+                                   @Value("${application.comments.ingestionRetryAfter}") long retryAfterSeconds,
+                                   @Value("${application.comments.maxThreadDepth}") int maxThreadDepth) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.postQueryService = postQueryService;
+        this.hotPostRanking = hotPostRanking;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batched = batched;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayMs = maxBatchDelayMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.maxThreadDepth = maxThreadDepth;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.rejected = Counter.builder("comments.ingestion.rejected")
+                .description("Comments rejected because the ingestion queue was full")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("comments.ingestion.batch.size")
+                .description("Comments written per flush")
+                .register(meterRegistry);
+        this.flushTime = Timer.builder("comments.ingestion.flush")
+                .description("Time to write and commit one batch of comments")
+                .register(meterRegistry);
+        this.commitLatency = Timer.builder("comments.ingestion.latency")
+                .description("Time from accepting a comment to committing it")
+                .register(meterRegistry);
+        meterRegistry.gauge("comments.ingestion.queue.depth", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (batched) {
+            flusher = new Thread(this::runFlusher, "comment-ingestion");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    public CompletableFuture<CommentSummary> submit(Long postId, Long parentId, AuthorSummary author, String content) {
+        PendingComment pending = new PendingComment(postId, parentId, author, content, System.nanoTime(), new CompletableFuture<>());
+        if (!batched) {
+            flush(List.of(pending));
+            return pending.result();
+        }
+        if (!enqueue(pending)) {
+            rejected.increment();
+            throw new IngestionOverloadedException(retryAfterSeconds);
+        }
+        return pending.result();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopAccepting();
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        failQueued();
+    }
+
+    private boolean enqueue(PendingComment pending) {
+        Lock lock = acceptingLock.readLock();
+        lock.lock();
+        try {
+            return accepting && queue.offer(pending);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stopAccepting() {
+        Lock lock = acceptingLock.writeLock();
+        lock.lock();
+        try {
+            accepting = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fails the comments the flusher did not get to. They were never acknowledged, so the client
+     * can safely retry them.
+     */
+    private void failQueued() {
+        List<PendingComment> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            logger.warn("Rejecting {} queued comments that were not written before shutdown", leftover.size());
+        }
+        leftover.forEach(pending -> pending.result().completeExceptionally(new IngestionOverloadedException(retryAfterSeconds)));
+    }
+
+    private void runFlusher() {
+        List<PendingComment> batch = new ArrayList<>(maxBatchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingComment next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                stopAccepting();
+                queue.drainTo(batch);
+                flush(batch);
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingComment> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<Written> written = transaction.execute(status -> write(batch));
+            complete(written);
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(ex);
+                return;
+            }
+            logger.warn("Comment batch of {} failed, retrying comments one by one: {}", batch.size(), ex.getMessage());
+            batch.forEach(pending -> flush(List.of(pending)));
+            return;
+        }
+        flushTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.size());
+    }
+
+    private List<Written> write(List<PendingComment> batch) {
+        Set<Long> postIds = new HashSet<>();
+        batch.forEach(pending -> postIds.add(pending.postId()));
+        Set<Long> existingPosts = new HashSet<>(postRepository.findExistingIds(postIds));
+        Map<Long, ThreadPosition> parents = findParents(batch);
+
+        List<Written> written = new ArrayList<>(batch.size());
+        Map<Long, Long> addedPerPost = new HashMap<>();
+        Map<Long, LocalDateTime> latestPerPost = new HashMap<>();
+        Map<Long, Integer> repliesPerParent = new HashMap<>();
+        for (PendingComment pending : batch) {
+            if (!existingPosts.contains(pending.postId())) {
+                written.add(new Written(pending, null,
+                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found with id: " + pending.postId())));
+                continue;
+            }
+            Comment comment = new Comment();
+            if (pending.parentId() != null) {
+                ThreadPosition parent = parents.get(pending.parentId());
+                if (parent == null || !parent.postId().equals(pending.postId())) {
+                    written.add(new Written(pending, null,
+                            new ResponseStatusException(HttpStatus.NOT_FOUND, "Parent comment not found with id: " + pending.parentId())));
+                    continue;
+                }
+                if (parent.depth() >= maxThreadDepth) {
+                    written.add(new Written(pending, null,
+                            new ResponseStatusException(HttpStatus.BAD_REQUEST, "Replies cannot be nested more than " + maxThreadDepth + " levels deep")));
+                    continue;
+                }
+                comment.placeUnder(parent);
+                repliesPerParent.merge(parent.id(), 1, Integer::sum);
+            }
+            comment.setContent(pending.content());
+            comment.setPost(entityManager.getReference(Post.class, pending.postId()));
+            comment.setAuthor(entityManager.getReference(User.class, pending.author().id()));
+            entityManager.persist(comment);
+            written.add(new Written(pending, comment, null));
+        }
+        entityManager.flush();
+        repliesPerParent.forEach(commentRepository::addReplies);
+
+        for (Written entry : written) {
+            if (entry.comment() != null) {
+                Long postId = entry.pending().postId();
+                addedPerPost.merge(postId, 1L, Long::sum);
+                latestPerPost.merge(postId, entry.comment().getPublicationDate(), (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+        addedPerPost.forEach((postId, added) -> {
+            postRepository.recordCommentActivity(postId, added, latestPerPost.get(postId));
+            postQueryService.evictPost(postId);
+        });
+        entityManager.clear();
+        return written;
+    }
+
+    private Map<Long, ThreadPosition> findParents(List<PendingComment> batch) {
+        Set<Long> parentIds = new HashSet<>();
+        batch.forEach(pending -> {
+            if (pending.parentId() != null) {
+                parentIds.add(pending.parentId());
+            }
+        });
+        if (parentIds.isEmpty()) {
+            return Map.of();
+        }
+        return commentRepository.findThreadPositions(parentIds).stream()
+                .collect(Collectors.toMap(ThreadPosition::id, Function.identity()));
+    }
+
+    private void complete(List<Written> written) {
+        long now = System.nanoTime();
+        for (Written entry : written) {
+            PendingComment pending = entry.pending();
+            Comment comment = entry.comment();
+            if (comment == null) {
+                pending.result().completeExceptionally(entry.rejection());
+                continue;
+            }
+            commitLatency.record(now - pending.acceptedAt(), TimeUnit.NANOSECONDS);
+            hotPostRanking.recordComment(pending.postId(), comment.getPublicationDate());
+            pending.result().complete(new CommentSummary(comment.getId(), comment.getContent(), comment.getPublicationDate(),
+                    pending.author().id(), pending.author().username()));
+        }
+    }
+
+    private record PendingComment(Long postId, Long parentId, AuthorSummary author, String content, long acceptedAt,
+                                  CompletableFuture<CommentSummary> result) {
+    }
+
+    private record Written(PendingComment pending, Comment comment, ResponseStatusException rejection) {
+    }
+
+    static class IngestionOverloadedException extends ResponseStatusException {
+        private final long retryAfterSeconds;
+
+        IngestionOverloadedException(long retryAfterSeconds) {
+            super(HttpStatus.SERVICE_UNAVAILABLE, "Too many comments are being posted, try again shortly");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return headers;
+        }
+    }
+}
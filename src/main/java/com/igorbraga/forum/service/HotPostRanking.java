@@ -0,0 +1,245 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.domain.comment.CommentActivity;
+import com.igorbraga.forum.domain.post.PostHotScore;
+import com.igorbraga.forum.repository.CommentRepository;
+import com.igorbraga.forum.repository.PostHotScoreRepository;
+import com.igorbraga.forum.repository.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * In-memory "hot" ranking of posts by time-decayed comment activity.
+ * <p>
+ * Every comment adds a weight that halves every {@code hotScoreHalfLife}. Instead of decaying all
+ * scores as time passes, each weight is stored grown from a fixed origin, {@code 2^(age since epoch / halfLife)},
+ * which orders posts exactly like the decayed sums do. A comment therefore only touches its own
+ * post's score, and scores are kept as natural logs so they never overflow.
+ * <p>
+ * Posts are kept in a skip list ordered by score, so a page of the top N is read by walking the
+ * head of the list without touching the database. Scores are snapshotted to {@code post_hot_scores}
+ * every {@code hotScoreSnapshotInterval}. On startup the snapshot is loaded and comments written
+ * since then are replayed. Removing comments drops the post's snapshot row in the deleting
+ * transaction, so a post without a row is recomputed from all of its recent comments instead.
+ * Posts whose decayed score drops below {@code hotScoreMinimum} comments are dropped at snapshot time.
+ */
+@Service
+public class HotPostRanking {
+    private static final Logger logger = LoggerFactory.getLogger(HotPostRanking.class);
+    private static final int SNAPSHOT_CHUNK_SIZE = 1000;
+
+    private final PostHotScoreRepository scoreRepository;
+    private final CommentRepository commentRepository;
+    private final PostRepository postRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final double growthPerMs;
+    private final double logMinimum;
+    private final long replayWindowMs;
+
+    private final Map<Long, Double> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<RankedPost> ranking = new ConcurrentSkipListSet<>(
+            Comparator.comparingDouble(RankedPost::logScore).thenComparingLong(RankedPost::postId).reversed());
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public HotPostRanking(PostHotScoreRepository scoreRepository,
+                          CommentRepository commentRepository,
+                          PostRepository postRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${application.posts.hotScoreHalfLife}") long halfLifeMs,
+                          @Value("${application.posts.hotScoreMinimum}") double minimum) {
+        this.scoreRepository = scoreRepository;
+        this.commentRepository = commentRepository;
+        this.postRepository = postRepository;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.growthPerMs = Math.log(2) / halfLifeMs;
+        this.logMinimum = Math.log(minimum);
+        // Older comments each weigh less than the minimum, so they are not worth replaying.
+        this.replayWindowMs = (long) Math.ceil(-Math.log(minimum) / Math.log(2)) * halfLifeMs;
+
+        meterRegistry.gaugeMapSize("posts.hot.tracked", List.of(), scores);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<PostHotScore> snapshot = scoreRepository.findAll();
+        snapshot.forEach(score -> update(score.getPostId(), current -> score.getLogScore()));
+        dirty.clear();
+
+        LocalDateTime windowStart = LocalDateTime.now().minus(Duration.ofMillis(replayWindowMs));
+        LocalDateTime since = snapshot.stream()
+                .map(PostHotScore::getUpdatedAt)
+                .max(Comparator.naturalOrder())
+                .orElse(windowStart);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<CommentActivity> activity = commentRepository.streamActivitySince(since)) {
+                activity.forEach(comment -> recordComment(comment.postId(), comment.publicationDate()));
+            }
+            if (since.isAfter(windowStart)) {
+                try (Stream<CommentActivity> activity = commentRepository.streamUnrankedActivityBetween(windowStart, since)) {
+                    activity.forEach(comment -> recordComment(comment.postId(), comment.publicationDate()));
+                }
+            }
+        });
+        logger.info("Hot ranking rebuilt with {} posts ({} from snapshot)", scores.size(), snapshot.size());
+    }
+
+    public void recordComment(Long postId, LocalDateTime publishedAt) {
+        double weight = logWeight(publishedAt);
+        update(postId, current -> current == null ? weight : logAdd(current, weight));
+    }
+
+    /**
+     * Takes deleted comments out of the post's score. The post's snapshot row is deleted within the
+     * caller's transaction, so it commits or rolls back together with the comments. Inside a
+     * transaction the in-memory score only changes after the commit.
+     */
+    public void removeComments(Long postId, Collection<LocalDateTime> publishedAt) {
+        transaction.executeWithoutResult(status -> scoreRepository.deleteByPostIds(List.of(postId)));
+        List<LocalDateTime> removed = List.copyOf(publishedAt);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    subtract(postId, removed);
+                }
+            });
+        } else {
+            subtract(postId, removed);
+        }
+    }
+
+    public void removePost(Long postId) {
+        update(postId, current -> null);
+    }
+
+    /**
+     * Ids of the hottest posts, skipping {@code offset}. Walks the head of the skip list, so the
+     * cost is O(offset + limit) regardless of how many posts are tracked.
+     */
+    public List<Long> topPostIds(int offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        Iterator<RankedPost> it = ranking.iterator();
+        for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+            it.next();
+        }
+        while (ids.size() < limit && it.hasNext()) {
+            ids.add(it.next().postId());
+        }
+        return ids;
+    }
+
+    @Scheduled(initialDelayString = "${application.posts.hotScoreSnapshotInterval}",
+               fixedDelayString = "${application.posts.hotScoreSnapshotInterval}")
+    public void snapshot() {
+        double logCutoff = logMinimum + growthPerMs * System.currentTimeMillis();
+        scores.forEach((postId, score) -> {
+            if (score < logCutoff) {
+                update(postId, current -> current == null || current < logCutoff ? null : current);
+            }
+        });
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Long> changed = new ArrayList<>(dirty);
+        dirty.removeAll(changed);
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            for (int from = 0; from < changed.size(); from += SNAPSHOT_CHUNK_SIZE) {
+                List<Long> chunk = changed.subList(from, Math.min(from + SNAPSHOT_CHUNK_SIZE, changed.size()));
+                transaction.executeWithoutResult(status -> writeSnapshot(chunk, now));
+            }
+        } catch (RuntimeException ex) {
+            dirty.addAll(changed);
+            logger.warn("Could not snapshot hot ranking, will retry: {}", ex.getMessage());
+        }
+    }
+
+    private void writeSnapshot(List<Long> postIds, LocalDateTime now) {
+        scoreRepository.deleteByPostIds(postIds);
+        Set<Long> existing = new HashSet<>(postRepository.findExistingIds(postIds));
+        for (Long postId : postIds) {
+            Double score = scores.get(postId);
+            if (score == null) {
+                continue;
+            }
+            if (existing.contains(postId)) {
+                entityManager.persist(new PostHotScore(postId, score, now));
+            } else {
+                removePost(postId);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void subtract(Long postId, List<LocalDateTime> publishedAt) {
+        for (LocalDateTime published : publishedAt) {
+            double weight = logWeight(published);
+            update(postId, current -> current == null ? null : logSubtract(current, weight));
+        }
+    }
+
+    private void update(Long postId, UnaryOperator<Double> change) {
+        scores.compute(postId, (id, current) -> {
+            Double updated = change.apply(current);
+            if (current != null) {
+                ranking.remove(new RankedPost(current, id));
+            }
+            if (updated != null) {
+                ranking.add(new RankedPost(updated, id));
+            }
+            return updated;
+        });
+        dirty.add(postId);
+    }
+
+    private double logWeight(LocalDateTime publishedAt) {
+        return growthPerMs * publishedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    private static Double logSubtract(double total, double weight) {
+        if (weight >= total) {
+            return null;
+        }
+        return total + Math.log1p(-Math.exp(weight - total));
+    }
+
+    private record RankedPost(double logScore, long postId) {
+    }
+}
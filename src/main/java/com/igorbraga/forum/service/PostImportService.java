@@ -0,0 +1,102 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.domain.comment.ImportCommentDTO;
+import com.igorbraga.forum.domain.post.ImportPostDTO;
+import com.igorbraga.forum.domain.post.Post;
+import com.igorbraga.forum.domain.post.PostImportResult;
+import com.igorbraga.forum.domain.user.AuthorSummary;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports posts with their comments in one transaction. Ids come from the pooled sequences,
+ * so Hibernate groups the inserts into JDBC batches (hibernate.jdbc.batch_size, order_inserts);
+ * the persistence context is flushed and cleared every {@code flushInterval} posts to keep it small.
+ */
+@Service
+public class PostImportService {
+    private final UserRepository userRepository;
+    private final PostQueryService postQueryService;
+    private final EntityManager entityManager;
+    private final int flushInterval;
+
+    public PostImportService(UserRepository userRepository, PostQueryService postQueryService, EntityManager entityManager,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}") int flushInterval) {
+        this.userRepository = userRepository;
+        this.postQueryService = postQueryService;
+        this.entityManager = entityManager;
+        this.flushInterval = flushInterval;
+    }
+
+    @Transactional
+    public PostImportResult importPosts(List<ImportPostDTO> posts) {
+        Map<String, Long> authorIds = resolveAuthors(posts);
+        LocalDateTime now = LocalDateTime.now();
+        int importedComments = 0;
+
+        for (int i = 0; i < posts.size(); i++) {
+            ImportPostDTO imported = posts.get(i);
+            List<ImportCommentDTO> comments = imported.comments() == null ? List.of() : imported.comments();
+
+            Post post = new Post();
+            post.setTitle(imported.title());
+            post.setContent(imported.content());
+            post.setAuthor(entityManager.getReference(User.class, authorIds.get(imported.authorUsername())));
+            post.setPublicationDate(imported.publicationDate() == null ? now : imported.publicationDate());
+            post.setCommentCount(comments.size());
+            entityManager.persist(post);
+
+            for (ImportCommentDTO importedComment : comments) {
+                Comment comment = new Comment();
+                comment.setContent(importedComment.content());
+                comment.setPost(post);
+                comment.setAuthor(entityManager.getReference(User.class, authorIds.get(importedComment.authorUsername())));
+                comment.setPublicationDate(importedComment.publicationDate());
+                entityManager.persist(comment);
+            }
+            importedComments += comments.size();
+
+            if ((i + 1) % flushInterval == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        postQueryService.evictFeed();
+        return new PostImportResult(posts.size(), importedComments);
+    }
+
+    private Map<String, Long> resolveAuthors(List<ImportPostDTO> posts) {
+        Set<String> usernames = new HashSet<>();
+        for (ImportPostDTO post : posts) {
+            usernames.add(post.authorUsername());
+            if (post.comments() != null) {
+                post.comments().forEach(comment -> usernames.add(comment.authorUsername()));
+            }
+        }
+
+        Map<String, Long> authorIds = new HashMap<>();
+        for (AuthorSummary author : userRepository.findAuthorsByUsernameIn(usernames)) {
+            authorIds.put(author.username(), author.id());
+        }
+        usernames.removeAll(authorIds.keySet());
+        if (!usernames.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown authors: " + String.join(", ", usernames));
+        }
+        return authorIds;
+    }
+}
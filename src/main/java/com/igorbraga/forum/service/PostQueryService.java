@@ -0,0 +1,257 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.config.CacheConfig;
+import com.igorbraga.forum.config.GuardedCaffeineCache;
+import com.igorbraga.forum.domain.comment.CommentPage;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.pagination.PublicationCursor;
+import com.igorbraga.forum.domain.post.HotPostPage;
+import com.igorbraga.forum.domain.post.PostDetailRow;
+import com.igorbraga.forum.domain.post.PostPage;
+import com.igorbraga.forum.domain.post.PostResponseDTO;
+import com.igorbraga.forum.domain.post.PostSearchPage;
+import com.igorbraga.forum.domain.post.PostSummary;
+import com.igorbraga.forum.domain.post.PostSummaryRow;
+import com.igorbraga.forum.domain.post.PostVersion;
+import com.igorbraga.forum.domain.post.PostViewsFlushed;
+import com.igorbraga.forum.domain.post.PostViewsFlushing;
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+import com.igorbraga.forum.repository.CommentRepository;
+import com.igorbraga.forum.repository.PostRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache for the post feed and post detail.
+ * Feed pages only cache the ordered post keys, so a comment or an edit on one post
+ * evicts that post's summary and detail without dropping every cached page.
+ * Misses are loaded outside the cache's compute lock so no JDBC call blocks while a
+ * monitor is held, which would pin virtual-thread carriers on JDKs before 24. A load that overlaps
+ * an eviction of its key is served but not stored (see {@link GuardedCaffeineCache}), and cached
+ * details remember the version they were loaded at.
+ * View counts are cached as persisted, grown in place when {@link PostViewCounter} flushes,
+ * and topped up at read time with the views it has not flushed yet.
+ * <p>
+ * Cached posts hold their author's id only. Authors, including those of the comments embedded in a
+ * detail, are attached at read time from {@link AuthorDirectory}, so a renamed user only needs their
+ * author entry evicted and posts by the same author share one author DTO.
+ */
+@Service
+public class PostQueryService {
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final HotPostRanking hotPostRanking;
+    private final PostViewCounter postViewCounter;
+    private final AuthorDirectory authorDirectory;
+    private final Cache feedPages;
+    private final Cache summaries;
+    private final Cache details;
+    private final GuardedCaffeineCache guardedSummaries;
+    private final GuardedCaffeineCache guardedDetails;
+
+    public PostQueryService(PostRepository postRepository, CommentRepository commentRepository, HotPostRanking hotPostRanking,
+                            PostViewCounter postViewCounter, AuthorDirectory authorDirectory, CacheManager cacheManager) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.hotPostRanking = hotPostRanking;
+        this.postViewCounter = postViewCounter;
+        this.authorDirectory = authorDirectory;
+        this.feedPages = Objects.requireNonNull(cacheManager.getCache(CacheConfig.POST_FEED_PAGES));
+        this.summaries = Objects.requireNonNull(cacheManager.getCache(CacheConfig.POST_SUMMARIES));
+        this.details = Objects.requireNonNull(cacheManager.getCache(CacheConfig.POST_DETAILS));
+        this.guardedSummaries = GuardedCaffeineCache.of(summaries);
+        this.guardedDetails = GuardedCaffeineCache.of(details);
+    }
+
+    public PostPage getFeedPage(PublicationCursor after, int pageSize) {
+        String pageKey = pageSize + ":" + (after == null ? "" : after.encode());
+        List<PublicationCursor> entries = feedPages.get(pageKey, () -> loadFeedEntries(after, pageSize + 1));
+
+        if (entries.size() <= pageSize) {
+            return new PostPage(getSummaries(entries.stream().map(PublicationCursor::id).toList()), null);
+        }
+        List<PublicationCursor> page = entries.subList(0, pageSize);
+        return new PostPage(getSummaries(page.stream().map(PublicationCursor::id).toList()), page.get(pageSize - 1).encode());
+    }
+
+    public PostSearchPage search(String query, int page, int pageSize) {
+        List<Long> ids = postRepository.searchPostIds(query, pageSize + 1, page * pageSize);
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        return new PostSearchPage(getSummaries(pageIds), page, hasNext);
+    }
+
+    public HotPostPage getHotPage(int page, int pageSize) {
+        List<Long> ids = hotPostRanking.topPostIds(page * pageSize, pageSize + 1);
+        boolean hasNext = ids.size() > pageSize;
+        return new HotPostPage(getSummaries(hasNext ? ids.subList(0, pageSize) : ids), page, hasNext);
+    }
+
+    public Optional<PostResponseDTO> getPostDetail(Long id) {
+        return getPostDetail(id, null);
+    }
+
+    /**
+     * The post at {@code version} or later. A write evicts the post only after it commits, so a
+     * cached copy can briefly be older than the version the caller just read; it is reloaded then,
+     * rather than served with a validator that would keep the old body alive through 304s.
+     */
+    public Optional<PostResponseDTO> getPostDetail(Long id, PostVersion version) {
+        Cache.ValueWrapper cached = details.get(id);
+        CachedDetail detail;
+        if (cached != null && isAtVersion((CachedDetail) cached.get(), version)) {
+            detail = (CachedDetail) cached.get();
+        } else {
+            long generation = guardedDetails.generation(id);
+            detail = loadPostDetail(id);
+            guardedDetails.putIfUnchanged(id, detail, generation);
+        }
+        return Optional.ofNullable(detail).map(this::toResponse);
+    }
+
+    public void evictFeed() {
+        feedPages.clear();
+    }
+
+    public void evictPost(Long id) {
+        summaries.evict(id);
+        details.evict(id);
+    }
+
+    public void evictPostDetail(Long id) {
+        details.evict(id);
+    }
+
+    public void evictAllPosts() {
+        summaries.clear();
+        details.clear();
+    }
+
+    @EventListener
+    public void onViewsFlushing(PostViewsFlushing event) {
+        guardedSummaries.beginBulkUpdate();
+        guardedDetails.beginBulkUpdate();
+    }
+
+    /**
+     * Adds flushed views to the cached posts instead of evicting them. The update is atomic with
+     * evictions, so it never resurrects an entry that a write just dropped, and posts loaded since
+     * {@link PostViewsFlushing} were not cached, so none of them gets the views twice or not at all.
+     */
+    @EventListener
+    public void onViewsFlushed(PostViewsFlushed event) {
+        event.views().forEach((postId, views) -> {
+            guardedSummaries.getNativeCache().asMap().computeIfPresent(postId,
+                    (id, cached) -> cached instanceof PostSummaryRow row ? row.withAddedViews(views) : cached);
+            guardedDetails.getNativeCache().asMap().computeIfPresent(postId,
+                    (id, cached) -> cached instanceof CachedDetail detail ? detail.withAddedViews(views) : cached);
+        });
+        guardedSummaries.endBulkUpdate();
+        guardedDetails.endBulkUpdate();
+    }
+
+    private List<PublicationCursor> loadFeedEntries(PublicationCursor after, int limit) {
+        if (after == null) {
+            return List.copyOf(postRepository.findFeedEntries(Limit.of(limit)));
+        }
+        return List.copyOf(postRepository.findFeedEntriesBefore(after.publicationDate(), after.id(), Limit.of(limit)));
+    }
+
+    private List<PostSummary> getSummaries(List<Long> ids) {
+        Map<Long, PostSummaryRow> resolved = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            PostSummaryRow cached = summaries.get(id, PostSummaryRow.class);
+            if (cached != null) {
+                resolved.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Long> generations = new HashMap<>();
+            missing.forEach(id -> generations.put(id, guardedSummaries.generation(id)));
+            for (PostSummaryRow row : postRepository.findPostSummaryRowsByIds(missing)) {
+                guardedSummaries.putIfUnchanged(row.id(), row, generations.get(row.id()));
+                resolved.put(row.id(), row);
+            }
+        }
+
+        List<PostSummaryRow> rows = ids.stream().map(resolved::get).filter(Objects::nonNull).toList();
+        Map<Long, UserResponseDTO> authors = authorDirectory.getAuthors(rows.stream().map(PostSummaryRow::authorId).toList());
+        return rows.stream()
+                .map(row -> row.withAddedViews(postViewCounter.unflushed(row.id())).toSummary(authors.get(row.authorId())))
+                .toList();
+    }
+
+    private static boolean isAtVersion(CachedDetail detail, PostVersion version) {
+        return version == null || (detail != null && detail.row().toVersion().equals(version));
+    }
+
+    private CachedDetail loadPostDetail(Long id) {
+        return postRepository.findDetailRowById(id)
+                .map(row -> new CachedDetail(row, loadFirstComments(id)))
+                .orElse(null);
+    }
+
+    private PostResponseDTO toResponse(CachedDetail detail) {
+        PostDetailRow row = detail.row().withAddedViews(postViewCounter.unflushed(detail.row().id()));
+        List<CommentSummary> comments = detail.comments().comments();
+        Set<Long> authorIds = new HashSet<>();
+        authorIds.add(row.authorId());
+        comments.forEach(comment -> authorIds.add(comment.author().id()));
+        Map<Long, UserResponseDTO> authors = authorDirectory.getAuthors(authorIds);
+        return row.toResponse(authors.get(row.authorId()),
+                new CommentPage(withCurrentUsernames(comments, authors), detail.comments().nextCursor()));
+    }
+
+    /**
+     * The comments as loaded, except those whose author has been renamed since.
+     */
+    private static List<CommentSummary> withCurrentUsernames(List<CommentSummary> comments, Map<Long, UserResponseDTO> authors) {
+        List<CommentSummary> current = null;
+        for (int i = 0; i < comments.size(); i++) {
+            CommentSummary comment = comments.get(i);
+            UserResponseDTO author = authors.get(comment.author().id());
+            if (author != null && !author.username().equals(comment.author().username())) {
+                if (current == null) {
+                    current = new ArrayList<>(comments);
+                }
+                current.set(i, new CommentSummary(comment.id(), comment.content(), comment.publicationDate(), author.id(), author.username()));
+            }
+        }
+        return current == null ? comments : current;
+    }
+
+    /**
+     * The first page of the post's comments, as {@code /api/posts/{id}/comments} would return it.
+     */
+    private CommentPage loadFirstComments(Long postId) {
+        List<CommentSummary> comments = commentRepository.findSummariesByPostId(postId, Limit.of(CommentPage.DEFAULT_SIZE + 1));
+        if (comments.size() <= CommentPage.DEFAULT_SIZE) {
+            return new CommentPage(comments, null);
+        }
+        CommentSummary last = comments.get(CommentPage.DEFAULT_SIZE - 1);
+        return new CommentPage(comments.subList(0, CommentPage.DEFAULT_SIZE), new PublicationCursor(last.publicationDate(), last.id()).encode());
+    }
+
+    private record CachedDetail(PostDetailRow row, CommentPage comments) {
+
+        CachedDetail withAddedViews(long views) {
+            return new CachedDetail(row.withAddedViews(views), comments);
+        }
+    }
+}
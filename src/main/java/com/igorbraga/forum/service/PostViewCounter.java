@@ -0,0 +1,133 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.domain.post.PostViewsFlushed;
+import com.igorbraga.forum.domain.post.PostViewsFlushing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind view counts. A view only bumps a per-post {@link LongAdder}, so the read path never
+ * writes to the database or contends on a lock. Every {@code viewFlushInterval} the deltas are
+ * taken with {@code sumThenReset}, which loses no concurrent increments, and added to
+ * {@code posts.view_count} in one JDBC batch. A {@link PostViewsFlushed} event then adds the
+ * flushed views to the cached posts in place, so the caches stay warm and match the database.
+ * The batch is preceded by a {@link PostViewsFlushing} event, so that posts loaded while it runs are
+ * not cached with counts that may or may not include it.
+ * <p>
+ * Deltas are written once more on shutdown. Views still unflushed when the process dies are lost,
+ * which is the price of not writing on every read.
+ */
+@Service
+public class PostViewCounter {
+    private static final Logger logger = LoggerFactory.getLogger(PostViewCounter.class);
+    private static final String ADD_VIEWS = "UPDATE posts SET view_count = view_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter flushed;
+
+    public PostViewCounter(JdbcTemplate jdbc, ApplicationEventPublisher events, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.events = events;
+        this.flushed = Counter.builder("posts.views.flushed")
+                .description("Post views written to the database")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("posts.views.pending", List.of(), pending);
+    }
+
+    public void record(Long postId) {
+        LongAdder views = pending.get(postId);
+        if (views == null) {
+            views = pending.computeIfAbsent(postId, id -> new LongAdder());
+        }
+        views.increment();
+    }
+
+    /**
+     * Views of the post that are not in the database yet, to add to a persisted count.
+     */
+    public long unflushed(Long postId) {
+        LongAdder views = pending.get(postId);
+        return (views == null ? 0 : views.sum()) + inFlight.getOrDefault(postId, 0L);
+    }
+
+    @Scheduled(initialDelayString = "${application.posts.viewFlushInterval}",
+               fixedDelayString = "${application.posts.viewFlushInterval}")
+    public void flush() {
+        writeDeltas(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // The caches are going away with the context, and their listener may already be destroyed.
+        writeDeltas(false);
+    }
+
+    private void writeDeltas(boolean updateCaches) {
+        flushLock.lock();
+        try {
+            List<Object[]> deltas = new ArrayList<>();
+            Map<Long, Long> flushedViews = new HashMap<>();
+            pending.forEach((postId, views) -> {
+                long delta = views.sumThenReset();
+                if (delta > 0) {
+                    inFlight.put(postId, delta);
+                    deltas.add(new Object[]{delta, postId});
+                    flushedViews.put(postId, delta);
+                } else if (pending.remove(postId, views)) {
+                    // Idle for a whole interval. Keep any view that raced with the removal.
+                    long late = views.sumThenReset();
+                    if (late > 0) {
+                        pending.computeIfAbsent(postId, id -> new LongAdder()).add(late);
+                    }
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            if (updateCaches) {
+                events.publishEvent(new PostViewsFlushing());
+            }
+            boolean written = false;
+            try {
+                jdbc.batchUpdate(ADD_VIEWS, deltas);
+                written = true;
+            } catch (RuntimeException ex) {
+                inFlight.forEach((postId, delta) -> pending.computeIfAbsent(postId, id -> new LongAdder()).add(delta));
+                inFlight.clear();
+                logger.warn("Could not flush views of {} posts, will retry: {}", deltas.size(), ex.getMessage());
+            } finally {
+                // Caches first: until inFlight is cleared a read may count these views twice, never zero times.
+                if (updateCaches) {
+                    events.publishEvent(new PostViewsFlushed(written ? flushedViews : Map.of()));
+                }
+            }
+            if (!written) {
+                return;
+            }
+            inFlight.clear();
+            deltas.forEach(delta -> flushed.increment((Long) delta[0]));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
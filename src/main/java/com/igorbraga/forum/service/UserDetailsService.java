@@ -1,21 +1,56 @@
 package com.igorbraga.forum.service;
 
+import com.igorbraga.forum.domain.user.User;
 import com.igorbraga.forum.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Service
-public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService {
+public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     public UserDetailsService(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
 
+    /**
+     * Resolves a password login with a single exact lookup on the username or email unique index,
+     * picked by the shape of the input, instead of an OR across both. Usernames registered before
+     * '@' was disallowed may still contain one, so an email miss falls back to the username. The
+     * password check that follows keeps this from resolving to anyone but the password's owner.
+     */
+    @Override
+    public User loadUserByUsername(String login) throws UsernameNotFoundException {
+        Optional<User> user = login.indexOf('@') >= 0
+                ? userRepository.findWithRolesByEmail(login).or(() -> userRepository.findWithRolesByUsername(login))
+                : userRepository.findWithRolesByUsername(login);
+        return user.orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + login));
+    }
+
+    /**
+     * Resolves the subject of a verified token. Tokens name their user by id, never by a login that
+     * could match another account's email.
+     */
+    public User loadUserById(Long id) {
+        return userRepository.findWithRolesById(id)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash was made
+     * with a lower BCrypt strength than the configured one, so hashes upgrade transparently.
+     */
     @Override
-    public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
-        return userRepository.findByUsernameOrEmail(login, login)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + login));
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findById(((User) userDetails).getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return user;
     }
 }
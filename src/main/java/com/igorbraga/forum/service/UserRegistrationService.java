@@ -0,0 +1,35 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.domain.auth.RegisterDTO;
+import com.igorbraga.forum.domain.user.Role;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.repository.RoleRepository;
+import com.igorbraga.forum.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+@Service
+public class UserRegistrationService {
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+
+    public UserRegistrationService(UserRepository userRepository, RoleRepository roleRepository) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+    }
+
+    @Transactional
+    public User register(RegisterDTO requestData, String passwordHash) {
+        User user = new User();
+        user.setUsername(requestData.getUsername());
+        user.setEmail(requestData.getEmail());
+        user.setPassword(passwordHash);
+
+        Role role = roleRepository.findByName("ROLE_USER");
+        user.setRoles(Set.of(role));
+
+        return userRepository.save(user);
+    }
+}
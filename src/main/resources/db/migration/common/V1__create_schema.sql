@@ -0,0 +1,75 @@
+-- Baseline schema, portable between PostgreSQL and H2. Databases created by Hibernate's ddl-auto=update before
+-- Flyway are baselined at version 0 (spring.flyway.baseline-version), so this also runs on them. That schema has
+-- every table but used identity keys for users and comments, and has neither the id sequences nor the
+-- updated_at, version and comment_count columns. Every statement is therefore idempotent, adding only what is
+-- missing; postgresql/V4 then moves the sequences past the existing ids.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 20;
+CREATE SEQUENCE IF NOT EXISTS posts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS roles (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(20) NOT NULL,
+    CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE IF NOT EXISTS posts (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255),
+    content TEXT NOT NULL,
+    user_id BIGINT,
+    publication_date TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    version BIGINT DEFAULT 0 NOT NULL,
+    comment_count BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT fk_posts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id BIGINT PRIMARY KEY,
+    content TEXT NOT NULL,
+    publication_date TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    version BIGINT DEFAULT 0 NOT NULL,
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    CONSTRAINT fk_comments_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_comments_post FOREIGN KEY (post_id) REFERENCES posts (id)
+);
+
+-- Columns the legacy schema lacks. Existing rows take the defaults, then the backfill below.
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS comment_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE posts SET updated_at = publication_date WHERE updated_at IS NULL;
+UPDATE comments SET updated_at = publication_date WHERE updated_at IS NULL;
+UPDATE posts SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = posts.id)
+WHERE comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.post_id = posts.id);
+
+-- Feed keyset pagination (PostRepository.findFeedEntries*): matches the ORDER BY and holds every selected
+-- column, so a page is an index-only range scan with no sort.
+CREATE INDEX IF NOT EXISTS idx_posts_publication_date_id ON posts (publication_date DESC, id DESC);
+
+-- Comment pages for a post (CommentRepository.findSummariesByPostId*): equality on post_id, then rows are already
+-- in keyset order.
+CREATE INDEX IF NOT EXISTS idx_comments_post_id_publication_date_id ON comments (post_id, publication_date, id);
@@ -0,0 +1,5 @@
+-- PostgreSQL does not index referencing columns. These back lookups by author and role, and keep user and
+-- role deletes from scanning the referencing tables.
+CREATE INDEX idx_posts_user_id ON posts (user_id);
+CREATE INDEX idx_comments_user_id ON comments (user_id);
+CREATE INDEX idx_user_roles_role_id ON user_roles (role_id);
@@ -0,0 +1,8 @@
+-- Periodic snapshot of the in-memory hot ranking (HotPostRanking), loaded back on startup.
+-- log_score is the natural log of the post's comment weights, each weight growing with the comment's age since the epoch.
+CREATE TABLE post_hot_scores (
+    post_id BIGINT PRIMARY KEY,
+    log_score DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_post_hot_scores_post FOREIGN KEY (post_id) REFERENCES posts (id) ON DELETE CASCADE
+);
@@ -0,0 +1,10 @@
+-- Reply threads stored as materialized paths. A comment's path is its ancestors' ids followed by its own, each
+-- zero-padded to 19 digits, so ordering by path is a depth-first walk and a subtree is one range of the index.
+-- parent_id has no foreign key: subtrees are removed by path range, and post deletes remove comments in any order.
+ALTER TABLE comments ADD COLUMN parent_id BIGINT;
+ALTER TABLE comments ADD COLUMN depth INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE comments ADD COLUMN reply_count INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE comments ADD COLUMN path VARCHAR(1024);
+UPDATE comments SET path = LPAD(CAST(id AS VARCHAR(19)), 19, '0');
+ALTER TABLE comments ALTER COLUMN path SET NOT NULL;
+CREATE INDEX idx_comments_post_id_path ON comments (post_id, path);
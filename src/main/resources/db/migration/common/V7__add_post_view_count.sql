@@ -0,0 +1,2 @@
+-- Written in batches by PostViewCounter, never through the Post entity.
+ALTER TABLE posts ADD COLUMN view_count BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,3 @@
+-- ETag counter for comment activity and count corrections, written by bulk updates only. The JPA version column
+-- stays reserved for edits, so a comment landing mid-edit no longer fails the edit with an optimistic-lock conflict.
+ALTER TABLE posts ADD COLUMN revision BIGINT DEFAULT 0 NOT NULL;
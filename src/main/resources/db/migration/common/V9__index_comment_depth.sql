@@ -0,0 +1,2 @@
+-- Depth-limited thread listings read each depth as its own range, so replies below the limit are never walked.
+CREATE INDEX idx_comments_post_id_depth_path ON comments (post_id, depth, path);
@@ -0,0 +1,6 @@
+-- Comments and users used identity columns before moving to pooled sequences, so move each sequence past the
+-- existing rows; with the pooled optimizer the next block starts after that value. Never moves a sequence
+-- backwards, so it is a no-op on fresh databases.
+SELECT setval('posts_seq', GREATEST((SELECT last_value FROM posts_seq), (SELECT coalesce(max(id), 0) FROM posts) + 50));
+SELECT setval('comments_seq', GREATEST((SELECT last_value FROM comments_seq), (SELECT coalesce(max(id), 0) FROM comments) + 50));
+SELECT setval('users_seq', GREATEST((SELECT last_value FROM users_seq), (SELECT coalesce(max(id), 0) FROM users) + 20));
@@ -0,0 +1,100 @@
+package com.igorbraga.forum;
+
+import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.domain.post.Post;
+import com.igorbraga.forum.domain.user.Role;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.repository.CommentRepository;
+import com.igorbraga.forum.repository.PostRepository;
+import com.igorbraga.forum.repository.RoleRepository;
+import com.igorbraga.forum.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Users, posts and comments for integration tests, each written and committed in its own transaction.
+ * Generated usernames get a random suffix, as tests share the application context and its database.
+ */
+@Component
+public class TestFixtures {
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+
+    public TestFixtures(PlatformTransactionManager transactionManager,
+                        UserRepository userRepository,
+                        RoleRepository roleRepository,
+                        PostRepository postRepository,
+                        CommentRepository commentRepository) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+    }
+
+    public User createUser(String prefix, String... roleNames) {
+        String username = prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return createUserWithEmail(username, username + "@example.com", roleNames);
+    }
+
+    public User createUserWithEmail(String username, String email, String... roleNames) {
+        return transactionTemplate.execute(status -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail(email);
+            user.setPassword("password-hash");
+            user.setRoles(new HashSet<>(Stream.of(roleNames).map(this::findOrCreateRole).toList()));
+            return userRepository.save(user);
+        });
+    }
+
+    /**
+     * The role with this name, created on first use.
+     */
+    public Role role(String name) {
+        return transactionTemplate.execute(status -> findOrCreateRole(name));
+    }
+
+    /**
+     * A post by a new author.
+     */
+    public Long createPost(String title) {
+        return createPost(createUser("author").getId(), title);
+    }
+
+    public Long createPost(Long authorId, String title) {
+        return transactionTemplate.execute(status -> {
+            Post post = new Post();
+            post.setTitle(title);
+            post.setContent("Post content");
+            post.setAuthor(userRepository.getReferenceById(authorId));
+            post.setPublicationDate(LocalDateTime.now());
+            return postRepository.save(post).getId();
+        });
+    }
+
+    public Comment createComment(Long postId, Long authorId, String content, LocalDateTime publishedAt) {
+        return transactionTemplate.execute(status -> {
+            Comment comment = new Comment();
+            comment.setContent(content);
+            comment.setAuthor(userRepository.getReferenceById(authorId));
+            comment.setPost(postRepository.getReferenceById(postId));
+            comment.setPublicationDate(publishedAt);
+            return commentRepository.save(comment);
+        });
+    }
+
+    private Role findOrCreateRole(String name) {
+        Role role = roleRepository.findByName(name);
+        return role != null ? role : roleRepository.save(new Role(null, name));
+    }
+}
@@ -0,0 +1,84 @@
+package com.igorbraga.forum.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuardedCaffeineCacheTests {
+    private final GuardedCaffeineCache cache = new GuardedCaffeineCache("posts", Caffeine.newBuilder().build());
+
+    @Test
+    void loadsAreStoredWhenNothingWasEvicted() {
+        long generation = cache.generation(1L);
+        cache.putIfUnchanged(1L, "loaded", generation);
+
+        assertThat(cache.get(1L, String.class)).isEqualTo("loaded");
+        assertThat(cache.get(2L, () -> "read through")).isEqualTo("read through");
+        assertThat(cache.get(2L, String.class)).isEqualTo("read through");
+    }
+
+    @Test
+    void loadsOverlappingAnEvictionOfTheirKeyAreNotStored() {
+        long generation = cache.generation(1L);
+        cache.evict(1L);
+        cache.putIfUnchanged(1L, "stale", generation);
+        assertThat(cache.get(1L)).isNull();
+
+        String served = cache.get(1L, () -> {
+            cache.evictIfPresent(1L);
+            return "stale";
+        });
+        assertThat(served).isEqualTo("stale");
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void clearingDiscardsEveryLoadInProgress() {
+        long first = cache.generation(1L);
+        long second = cache.generation(2L);
+        cache.invalidate();
+
+        cache.putIfUnchanged(1L, "stale", first);
+        cache.putIfUnchanged(2L, "stale", second);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNull();
+    }
+
+    @Test
+    void evictingOneKeyKeepsLoadsOfKeysInOtherStripes() {
+        long generation = cache.generation(2L);
+        cache.evict(1L);
+        cache.putIfUnchanged(2L, "loaded", generation);
+
+        assertThat(cache.get(2L, String.class)).isEqualTo("loaded");
+    }
+
+    @Test
+    void loadsOverlappingABulkUpdateAreNotStored() {
+        long beforeUpdate = cache.generation(1L);
+        cache.beginBulkUpdate();
+        long duringUpdate = cache.generation(2L);
+
+        cache.putIfUnchanged(2L, "read mid-update", duringUpdate);
+        assertThat(cache.get(2L)).isNull();
+
+        cache.endBulkUpdate();
+        cache.putIfUnchanged(1L, "read before the update", beforeUpdate);
+        cache.putIfUnchanged(2L, "read mid-update", duringUpdate);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNull();
+
+        cache.putIfUnchanged(3L, "read after the update", cache.generation(3L));
+        assertThat(cache.get(3L, String.class)).isEqualTo("read after the update");
+    }
+
+    @Test
+    void missingValuesAreCachedAsNull() {
+        cache.putIfUnchanged(1L, null, cache.generation(1L));
+
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(cache.get(1L).get()).isNull();
+    }
+}
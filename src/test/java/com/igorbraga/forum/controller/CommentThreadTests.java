@@ -0,0 +1,178 @@
+package com.igorbraga.forum.controller;
+
+import com.igorbraga.forum.TestFixtures;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.comment.ThreadPosition;
+import com.igorbraga.forum.domain.user.AuthorSummary;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.repository.CommentRepository;
+import com.igorbraga.forum.repository.PostRepository;
+import com.igorbraga.forum.security.JwtTokenProvider;
+import com.igorbraga.forum.service.CommentIngestionService;
+import com.igorbraga.forum.service.HotPostRanking;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CommentThreadTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentIngestionService commentIngestionService;
+
+    @Autowired
+    private HotPostRanking hotPostRanking;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private TransactionTemplate transactionTemplate;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        author = fixtures.createUser("threader");
+    }
+
+    @Test
+    void threadListsRepliesDepthFirstUnderTheirParents() throws Exception {
+        Long postId = fixtures.createPost(author.getId(), "Threads");
+        Long first = comment(postId, null);
+        Long second = comment(postId, null);
+        Long firstReply = comment(postId, first);
+        Long secondReply = comment(postId, first);
+        // Written last, but listed right below its parent.
+        Long nestedReply = comment(postId, firstReply);
+
+        mockMvc.perform(get("/api/posts/{postId}/comments/thread", postId).param("depth", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[*].id").value(contains(
+                        first.intValue(), firstReply.intValue(), nestedReply.intValue(), secondReply.intValue(), second.intValue())))
+                .andExpect(jsonPath("$.comments[*].depth").value(contains(0, 1, 2, 1, 0)))
+                .andExpect(jsonPath("$.comments[0].replyCount").value(2));
+
+        mockMvc.perform(get("/api/posts/{postId}/comments/thread", postId).param("depth", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[*].id").value(contains(first.intValue(), second.intValue())));
+    }
+
+    @Test
+    void deletingACommentRemovesItsRepliesAndAdjustsCountsAndRanking() throws Exception {
+        Long postId = fixtures.createPost(author.getId(), "Threads");
+        Long root = comment(postId, null);
+        Long reply = comment(postId, root);
+        Long sibling = comment(postId, root);
+        comment(postId, reply);
+        Long lastRoot = comment(postId, null);
+        Long otherPostId = fixtures.createPost(author.getId(), "Threads");
+        for (int i = 0; i < 4; i++) {
+            comment(otherPostId, null);
+        }
+        assertThat(rankingOf(postId, otherPostId)).containsExactly(postId, otherPostId);
+
+        mockMvc.perform(delete("/api/comments/{commentId}", reply).header(HttpHeaders.AUTHORIZATION, token()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/posts/{postId}/comments/thread", postId).param("depth", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[*].id").value(contains(root.intValue(), sibling.intValue(), lastRoot.intValue())))
+                .andExpect(jsonPath("$.comments[0].replyCount").value(1));
+        assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isEqualTo(3);
+        assertThat(rankingOf(postId, otherPostId)).containsExactly(otherPostId, postId);
+    }
+
+    @Test
+    void replyWaitsForADeleteOfItsParentAndIsRejected() throws Exception {
+        Long postId = fixtures.createPost(author.getId(), "Threads");
+        Long parent = comment(postId, null);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch replySubmitted = new CountDownLatch(1);
+
+        CompletableFuture<Void> delete = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            ThreadPosition position = commentRepository.findThreadPosition(parent).orElseThrow();
+            commentRepository.findLockedById(parent).orElseThrow();
+            locked.countDown();
+            await(replySubmitted);
+            commentRepository.deleteThreadRange(postId, position.path(), position.subtreeEnd());
+        }));
+        locked.await(5, TimeUnit.SECONDS);
+        // Without batching the reply is written on the submitting thread, so submit from another one.
+        CompletableFuture<CommentSummary> reply = CompletableFuture.supplyAsync(() -> commentIngestionService
+                .submit(postId, parent, new AuthorSummary(author.getId(), author.getUsername()), "Late reply"))
+                .thenCompose(written -> written);
+        Thread.sleep(200);
+        assertThat(reply).isNotDone();
+        replySubmitted.countDown();
+        delete.get(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> reply.get(5, TimeUnit.SECONDS))
+                .cause().isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        mockMvc.perform(get("/api/posts/{postId}/comments/thread", postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments").isEmpty());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private List<Long> rankingOf(Long... postIds) {
+        List<Long> ours = List.of(postIds);
+        return hotPostRanking.topPostIds(0, 10_000).stream().filter(ours::contains).toList();
+    }
+
+    private Long comment(Long postId, Long parentId) throws Exception {
+        CommentSummary comment = commentIngestionService
+                .submit(postId, parentId, new AuthorSummary(author.getId(), author.getUsername()), "Threaded comment")
+                .get(5, TimeUnit.SECONDS);
+        return comment.id();
+    }
+
+    private String token() {
+        return "Bearer " + tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(author, null, author.getAuthorities()));
+    }
+}
@@ -0,0 +1,163 @@
+package com.igorbraga.forum.controller;
+
+import com.igorbraga.forum.TestFixtures;
+import com.igorbraga.forum.domain.post.Post;
+import com.igorbraga.forum.repository.PostRepository;
+import com.igorbraga.forum.service.CommentCountReconciler;
+import com.igorbraga.forum.service.PostViewCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalReadTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostViewCounter postViewCounter;
+
+    @Autowired
+    private CommentCountReconciler commentCountReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void postDetailIsNotModifiedUntilItsCommentsChange() throws Exception {
+        assertRevalidatesAfterCommentActivity("/api/posts/%d");
+    }
+
+    @Test
+    void commentPageIsNotModifiedUntilItsCommentsChange() throws Exception {
+        assertRevalidatesAfterCommentActivity("/api/posts/%d/comments");
+    }
+
+    @Test
+    void postDetailStaysNotModifiedWhileItsViewCountGrows() throws Exception {
+        Long postId = fixtures.createPost("Conditional reads");
+
+        String eTag = mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.viewCount").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("W/");
+
+        postViewCounter.flush();
+        mockMvc.perform(get("/api/posts/{id}", postId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(jsonPath("$.viewCount").value(3));
+    }
+
+    @Test
+    void postDetailIsReloadedWhenItsVersionMovedBeforeTheEviction() throws Exception {
+        Long postId = fixtures.createPost("Conditional reads");
+        mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Conditional reads"));
+
+        // Committed, but its after-commit eviction has not run yet.
+        jdbcTemplate.update("UPDATE posts SET title = ?, revision = revision + 1 WHERE id = ?", "Edited title", postId);
+
+        mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Edited title"));
+    }
+
+    @Test
+    void correctedCommentCountsChangeTheValidator() throws Exception {
+        Long postId = fixtures.createPost("Conditional reads");
+        String eTag = mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        jdbcTemplate.update("UPDATE posts SET comment_count = 7 WHERE id = ?", postId);
+        commentCountReconciler.reconcile();
+
+        mockMvc.perform(get("/api/posts/{id}", postId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void commentActivityDoesNotFailAnEditInProgress() {
+        Long postId = fixtures.createPost("Conditional reads");
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Post post = postRepository.findById(postId).orElseThrow();
+            concurrent.executeWithoutResult(inner -> postRepository.recordCommentActivity(postId, 1, LocalDateTime.now()));
+            post.setTitle("Edited title");
+            postRepository.saveAndFlush(post);
+        });
+
+        Post saved = postRepository.findById(postId).orElseThrow();
+        assertThat(saved.getTitle()).isEqualTo("Edited title");
+        assertThat(saved.getCommentCount()).isEqualTo(1);
+    }
+
+    private void assertRevalidatesAfterCommentActivity(String pathTemplate) throws Exception {
+        Long postId = fixtures.createPost("Conditional reads");
+        String path = pathTemplate.formatted(postId);
+
+        String eTag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        // Two comment writes stamped with the same millisecond must still yield two validators.
+        LocalDateTime activityAt = LocalDateTime.now().withNano(0);
+        recordCommentActivity(postId, activityAt);
+        String afterFirst = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        recordCommentActivity(postId, activityAt);
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, afterFirst))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    private void recordCommentActivity(Long postId, LocalDateTime activityAt) {
+        transactionTemplate.executeWithoutResult(status -> postRepository.recordCommentActivity(postId, 1, activityAt));
+    }
+}
@@ -0,0 +1,71 @@
+package com.igorbraga.forum.controller;
+
+import com.igorbraga.forum.TestFixtures;
+import com.igorbraga.forum.domain.comment.CommentPage;
+import com.igorbraga.forum.domain.user.User;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PostDetailTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void detailEmbedsTheFirstCommentPageAndACursorForTheRest() throws Exception {
+        int total = CommentPage.DEFAULT_SIZE + 5;
+        Long postId = createPost(total);
+
+        String body = mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(CommentPage.DEFAULT_SIZE)))
+                .andExpect(jsonPath("$.comments[0].content").value("Comment 0"))
+                .andExpect(jsonPath("$.nextCommentsCursor").value(notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(body, "$.nextCommentsCursor");
+
+        mockMvc.perform(get("/api/posts/{id}/comments", postId).param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(total - CommentPage.DEFAULT_SIZE)))
+                .andExpect(jsonPath("$.comments[0].content").value("Comment " + CommentPage.DEFAULT_SIZE))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    void detailOfAShortThreadHasNoCommentsCursor() throws Exception {
+        Long postId = createPost(3);
+
+        mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(3)))
+                .andExpect(jsonPath("$.nextCommentsCursor").value(nullValue()));
+    }
+
+    private Long createPost(int comments) {
+        User author = fixtures.createUser("detail");
+        Long postId = fixtures.createPost(author.getId(), "Long thread");
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < comments; i++) {
+            fixtures.createComment(postId, author.getId(), "Comment " + i, now.plusSeconds(i));
+        }
+        return postId;
+    }
+}
@@ -0,0 +1,61 @@
+package com.igorbraga.forum.domain.post;
+
+import com.igorbraga.forum.domain.comment.ImportCommentDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostImportRequestTests {
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void acceptsPostsWithinTheCommentLimits() {
+        assertThat(validator.validate(request(50, 1000))).isEmpty();
+    }
+
+    @Test
+    void rejectsAPostWithTooManyComments() {
+        assertThat(messages(request(1, 1001))).containsExactly("At most 1000 comments can be imported per post");
+    }
+
+    @Test
+    void rejectsTooManyCommentsAcrossPosts() {
+        assertThat(messages(request(51, 1000))).containsExactly("At most 50000 comments can be imported per request");
+    }
+
+    private static List<String> messages(PostImportRequest request) {
+        return validator.validate(request).stream().map(ConstraintViolation::getMessage).toList();
+    }
+
+    private static PostImportRequest request(int posts, int commentsPerPost) {
+        // One comment instance repeated: only the list sizes matter here.
+        List<ImportCommentDTO> comments = Collections.nCopies(commentsPerPost, new ImportCommentDTO("Imported comment", "author", null));
+        List<ImportPostDTO> imported = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            imported.add(new ImportPostDTO("Imported post " + i, "Imported content", "author", null, comments));
+        }
+        return new PostImportRequest(imported);
+    }
+}
@@ -0,0 +1,84 @@
+package com.igorbraga.forum.load;
+
+import com.igorbraga.forum.ForumApplication;
+import com.igorbraga.forum.domain.comment.ImportCommentDTO;
+import com.igorbraga.forum.domain.post.ImportPostDTO;
+import com.igorbraga.forum.service.PostImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares bulk-import insert throughput with JDBC batching effectively off (batch size 1) and on.
+ * Runs against in-memory H2 by default, where round trips are nearly free and the gain is small;
+ * pass {@code -Dbenchmark.postgresUrl=...} (plus user/password) to measure against a real database.
+ * Run with {@code mvn test -Dtest=BulkImportBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkImportBenchmark {
+    private static final int REQUESTS = Integer.getInteger("benchmark.importRequests", 20);
+    private static final int POSTS_PER_REQUEST = 500;
+    private static final int COMMENTS_PER_POST = 5;
+    private static final int AUTHORS = 50;
+
+    @Test
+    void batchedInsertsOutpaceRowByRowInserts() {
+        double unbatched = rowsPerSecond(1);
+        double batched = rowsPerSecond(50);
+
+        System.out.printf("row-by-row: %,.0f rows/s%nbatched:    %,.0f rows/s (%.1fx)%n", unbatched, batched, batched / unbatched);
+        assertThat(batched).isGreaterThan(unbatched);
+    }
+
+    private double rowsPerSecond(int batchSize) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize));
+        String postgresUrl = System.getProperty("benchmark.postgresUrl");
+        if (postgresUrl != null) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=" + postgresUrl,
+                    "--spring.datasource.username=" + System.getProperty("benchmark.postgresUser", "postgres"),
+                    "--spring.datasource.password=" + System.getProperty("benchmark.postgresPassword", ""),
+                    "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                    "--spring.flyway.enabled=false",
+                    "--spring.jpa.hibernate.ddl-auto=create"));
+        } else {
+            args.add("--spring.datasource.url=jdbc:h2:mem:import-" + batchSize);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ForumApplication.class)
+                .run(args.toArray(String[]::new))) {
+            new LoadTestSeeder(context.getBean(JdbcTemplate.class)).seed(new LoadTestSeeder.Scale(AUTHORS, 0, 0), "not-a-hash");
+            PostImportService importService = context.getBean(PostImportService.class);
+
+            importService.importPosts(payload(0));
+            long start = System.nanoTime();
+            for (int request = 1; request <= REQUESTS; request++) {
+                importService.importPosts(payload(request));
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return REQUESTS * POSTS_PER_REQUEST * (1 + COMMENTS_PER_POST) / seconds;
+        }
+    }
+
+    private static List<ImportPostDTO> payload(int request) {
+        List<ImportPostDTO> posts = new ArrayList<>(POSTS_PER_REQUEST);
+        for (int post = 0; post < POSTS_PER_REQUEST; post++) {
+            List<ImportCommentDTO> comments = new ArrayList<>(COMMENTS_PER_POST);
+            for (int comment = 0; comment < COMMENTS_PER_POST; comment++) {
+                comments.add(new ImportCommentDTO("Imported comment " + comment, LoadTestSeeder.username(1 + (post + comment) % AUTHORS), null));
+            }
+            posts.add(new ImportPostDTO("Imported post " + request + "-" + post, "Imported content ".repeat(10),
+                    LoadTestSeeder.username(1 + post % AUTHORS), null, comments));
+        }
+        return posts;
+    }
+}
@@ -0,0 +1,118 @@
+package com.igorbraga.forum.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    record Request(String endpoint, HttpRequest httpRequest) {
+    }
+
+    record Result(String name, int requests, int errors, Duration elapsed, long[] sortedLatenciesNanos) {
+
+        double throughput() {
+            return requests / (elapsed.toNanos() / 1_000_000_000.0);
+        }
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatenciesNanos.length) - 1;
+            return sortedLatenciesNanos[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        String format() {
+            return String.format("%-28s %8d req %6d err %10.1f req/s   p50 %8.2f ms   p95 %8.2f ms   p99 %8.2f ms",
+                    name, requests, errors, throughput(), percentileMillis(50), percentileMillis(95), percentileMillis(99));
+        }
+    }
+
+    record Report(Result overall, Map<String, Result> byEndpoint) {
+
+        String format() {
+            StringBuilder report = new StringBuilder(overall.format()).append('\n');
+            byEndpoint.values().forEach(result -> report.append("  ").append(result.format()).append('\n'));
+            return report.toString();
+        }
+    }
+
+    private record Sample(String endpoint, long latencyNanos, boolean error) {
+    }
+
+    static Result run(String name, int concurrency, int requestsPerWorker, Supplier<HttpRequest> requests) throws Exception {
+        return run(name, concurrency, requestsPerWorker, worker -> () -> new Request(name, requests.get())).overall();
+    }
+
+    /**
+     * Runs {@code concurrency} workers on virtual threads, each sending {@code requestsPerWorker}
+     * requests drawn from its own supplier, so workers can carry state such as an access token.
+     */
+    static Report run(String name, int concurrency, int requestsPerWorker, IntFunction<Supplier<Request>> workers) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        List<Future<List<Sample>>> running = new ArrayList<>(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                Supplier<Request> requests = workers.apply(worker);
+                running.add(executor.submit(() -> {
+                    List<Sample> samples = new ArrayList<>(requestsPerWorker);
+                    for (int i = 0; i < requestsPerWorker; i++) {
+                        Request request = requests.get();
+                        long sent = System.nanoTime();
+                        boolean error;
+                        try {
+                            HttpResponse<Void> response = client.send(request.httpRequest(), HttpResponse.BodyHandlers.discarding());
+                            error = response.statusCode() >= 400;
+                        } catch (Exception ex) {
+                            error = true;
+                        }
+                        samples.add(new Sample(request.endpoint(), System.nanoTime() - sent, error));
+                    }
+                    return samples;
+                }));
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        List<Sample> all = new ArrayList<>(concurrency * requestsPerWorker);
+        for (Future<List<Sample>> worker : running) {
+            all.addAll(worker.get());
+        }
+        Map<String, List<Sample>> byEndpoint = new LinkedHashMap<>();
+        for (Sample sample : all) {
+            byEndpoint.computeIfAbsent(sample.endpoint(), endpoint -> new ArrayList<>()).add(sample);
+        }
+
+        Map<String, Result> endpointResults = new LinkedHashMap<>();
+        byEndpoint.forEach((endpoint, samples) -> endpointResults.put(endpoint, summarize(endpoint, samples, elapsed)));
+        return new Report(summarize(name, all, elapsed), endpointResults);
+    }
+
+    private static Result summarize(String name, List<Sample> samples, Duration elapsed) {
+        long[] latencies = samples.stream().mapToLong(Sample::latencyNanos).sorted().toArray();
+        int errors = (int) samples.stream().filter(Sample::error).count();
+        return new Result(name, samples.size(), errors, elapsed, latencies);
+    }
+}
@@ -0,0 +1,196 @@
+package com.igorbraga.forum.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igorbraga.forum.ForumApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test against an in-memory H2 database, so it runs offline. Seeds data at the
+ * scale configured in {@code loadtest.properties}, drives a weighted mix of reads, comment writes
+ * and logins, writes a per-endpoint latency report to {@code target/load-test-report.txt} and fails
+ * when any configured SLO is missed.
+ * Run with {@code mvn test -Dtest=LoadTest -Dloadtest=true}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class LoadTest {
+    private static final List<String> ENDPOINTS = List.of("feed", "feedNextPage", "postDetail", "comments", "createComment", "login");
+
+    private final Properties config = loadConfig();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient setupClient = HttpClient.newHttpClient();
+
+    @Test
+    void restApiMeetsLatencySlos() throws Exception {
+        LoadTestSeeder.Scale scale = new LoadTestSeeder.Scale(
+                intConfig("loadtest.users"), intConfig("loadtest.posts"), intConfig("loadtest.commentsPerPost"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ForumApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest",
+                        "--application.security.passwordHashingQueueCapacity=256",
+                        // Every simulated client shares one address.
+                        "--application.ratelimit.enabled=false")) {
+            String passwordHash = context.getBean(PasswordEncoder.class).encode(LoadTestSeeder.PASSWORD);
+            new LoadTestSeeder(context.getBean(JdbcTemplate.class)).seed(scale, passwordHash);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<String> cursors = collectFeedCursors(baseUrl, 10);
+            int concurrency = intConfig("loadtest.concurrency");
+
+            List<String> tokens = new ArrayList<>(concurrency);
+            for (int worker = 0; worker < concurrency; worker++) {
+                tokens.add(login(baseUrl, LoadTestSeeder.username(1 + worker % scale.users())));
+            }
+
+            LoadGenerator.run("warm-up", concurrency, intConfig("loadtest.warmupRequestsPerWorker"),
+                    worker -> mix(baseUrl, scale, cursors, tokens.get(worker)));
+            LoadGenerator.Report report = LoadGenerator.run("overall", concurrency, intConfig("loadtest.requestsPerWorker"),
+                    worker -> mix(baseUrl, scale, cursors, tokens.get(worker)));
+
+            List<String> violations = checkSlos(report);
+            String output = report.format() + (violations.isEmpty() ? "All SLOs met\n" : "SLO violations:\n  " + String.join("\n  ", violations) + "\n");
+            System.out.print(output);
+            Files.createDirectories(Path.of("target"));
+            Files.writeString(Path.of("target", "load-test-report.txt"), output);
+
+            assertThat(violations).isEmpty();
+        }
+    }
+
+    private Supplier<LoadGenerator.Request> mix(String baseUrl, LoadTestSeeder.Scale scale, List<String> cursors, String token) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        ENDPOINTS.forEach(endpoint -> weights.put(endpoint, intConfig("loadtest.mix." + endpoint)));
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+
+        return () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int pick = random.nextInt(totalWeight);
+            String endpoint = null;
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    endpoint = weight.getKey();
+                    break;
+                }
+            }
+            long postId = random.nextLong(1, scale.posts() + 1);
+            HttpRequest request = switch (endpoint) {
+                case "feed" -> get(baseUrl + "/api/posts");
+                case "feedNextPage" -> get(baseUrl + "/api/posts?cursor=" + cursors.get(random.nextInt(cursors.size())));
+                case "postDetail" -> get(baseUrl + "/api/posts/" + postId);
+                case "comments" -> get(baseUrl + "/api/posts/" + postId + "/comments");
+                case "createComment" -> post(baseUrl + "/api/posts/" + postId + "/comments",
+                        "{\"content\":\"Load test comment " + random.nextInt() + "\"}", token);
+                default -> post(baseUrl + "/api/auth/login",
+                        loginBody(LoadTestSeeder.username(random.nextInt(1, scale.users() + 1))), null);
+            };
+            return new LoadGenerator.Request(endpoint, request);
+        };
+    }
+
+    private List<String> checkSlos(LoadGenerator.Report report) {
+        List<String> violations = new ArrayList<>();
+        LoadGenerator.Result overall = report.overall();
+        double maxErrorRate = doubleConfig("loadtest.slo.maxErrorRate");
+        if (overall.errorRate() > maxErrorRate) {
+            violations.add(String.format("error rate %.4f > %.4f", overall.errorRate(), maxErrorRate));
+        }
+        double minThroughput = doubleConfig("loadtest.slo.minThroughput");
+        if (overall.throughput() < minThroughput) {
+            violations.add(String.format("throughput %.1f req/s < %.1f req/s", overall.throughput(), minThroughput));
+        }
+        report.byEndpoint().forEach((endpoint, result) -> {
+            for (int percentile : new int[]{95, 99}) {
+                double budget = doubleConfig("loadtest.slo." + endpoint + ".p" + percentile);
+                double actual = result.percentileMillis(percentile);
+                if (actual > budget) {
+                    violations.add(String.format("%s p%d %.2f ms > %.2f ms", endpoint, percentile, actual, budget));
+                }
+            }
+        });
+        return violations;
+    }
+
+    private List<String> collectFeedCursors(String baseUrl, int pages) throws IOException, InterruptedException {
+        List<String> cursors = new ArrayList<>();
+        String url = baseUrl + "/api/posts";
+        for (int page = 0; page < pages; page++) {
+            JsonNode body = objectMapper.readTree(setupClient.send(get(url), HttpResponse.BodyHandlers.ofString()).body());
+            JsonNode nextCursor = body.get("nextCursor");
+            if (nextCursor == null || nextCursor.isNull()) {
+                break;
+            }
+            cursors.add(nextCursor.asText());
+            url = baseUrl + "/api/posts?cursor=" + nextCursor.asText();
+        }
+        return cursors;
+    }
+
+    private String login(String baseUrl, String username) throws IOException, InterruptedException {
+        HttpResponse<String> response = setupClient.send(post(baseUrl + "/api/auth/login", loginBody(username), null),
+                HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readTree(response.body()).get("accessToken").asText();
+    }
+
+    private static String loginBody(String username) {
+        return "{\"login\":\"" + username + "\",\"password\":\"" + LoadTestSeeder.PASSWORD + "\"}";
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String json, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private int intConfig(String key) {
+        return Integer.parseInt(config.getProperty(key));
+    }
+
+    private double doubleConfig(String key) {
+        return Double.parseDouble(config.getProperty(key));
+    }
+
+    private static Properties loadConfig() {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTest.class.getResourceAsStream("/loadtest.properties")) {
+            properties.load(defaults);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not read loadtest.properties", ex);
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith("loadtest."))
+                .forEach(key -> properties.setProperty(key, System.getProperty(key)));
+        return properties;
+    }
+}
@@ -0,0 +1,86 @@
+package com.igorbraga.forum.load;
+
+import com.igorbraga.forum.domain.comment.ThreadPosition;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds users, posts and comments straight through JDBC so a load run can start from a
+ * realistically sized database in seconds. Post and comment ids are assigned from 1 and their
+ * sequences are moved past them so rows created during the run do not collide.
+ */
+final class LoadTestSeeder {
+    static final String PASSWORD = "load-test-password";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final String nextValueFormat;
+
+    LoadTestSeeder(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+        String database = jdbc.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        this.nextValueFormat = "PostgreSQL".equals(database) ? "nextval('%s')" : "NEXT VALUE FOR %s";
+    }
+
+    record Scale(int users, int posts, int commentsPerPost) {
+    }
+
+    static String username(int user) {
+        return "load-user-" + user;
+    }
+
+    void seed(Scale scale, String passwordHash) {
+        jdbc.update("INSERT INTO roles (name) VALUES ('ROLE_USER')");
+        Long roleId = jdbc.queryForObject("SELECT id FROM roles WHERE name = 'ROLE_USER'", Long.class);
+
+        List<Object[]> users = new ArrayList<>();
+        for (int user = 1; user <= scale.users(); user++) {
+            users.add(new Object[]{username(user), username(user) + "@forum.test", passwordHash});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, username, email, password) VALUES (" + nextValue("users_seq") + ", ?, ?, ?)", users);
+        jdbc.update("INSERT INTO user_roles (user_id, role_id) SELECT id, ? FROM users", roleId);
+        List<Long> userIds = jdbc.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> posts = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> comments = new ArrayList<>(BATCH_SIZE);
+        long commentId = 0;
+        for (long postId = 1; postId <= scale.posts(); postId++) {
+            LocalDateTime publishedAt = now.minusMinutes(scale.posts() - postId);
+            Long author = userIds.get((int) (postId % userIds.size()));
+            posts.add(new Object[]{postId, "Post " + postId, "Load test post content for post " + postId + ". ".repeat(20),
+                    author, publishedAt, publishedAt, scale.commentsPerPost()});
+            for (int comment = 0; comment < scale.commentsPerPost(); comment++) {
+                Long commenter = userIds.get((int) ((postId + comment) % userIds.size()));
+                commentId++;
+                comments.add(new Object[]{commentId, "Comment " + comment + " on post " + postId,
+                        publishedAt.plusSeconds(comment), publishedAt.plusSeconds(comment), commenter, postId, ThreadPosition.segment(commentId)});
+            }
+            if (posts.size() >= BATCH_SIZE) {
+                flush(posts, comments);
+            }
+        }
+        flush(posts, comments);
+        jdbc.execute("ALTER SEQUENCE posts_seq RESTART WITH " + (scale.posts() + 100));
+        jdbc.execute("ALTER SEQUENCE comments_seq RESTART WITH " + (commentId + 100));
+    }
+
+    private String nextValue(String sequence) {
+        return String.format(nextValueFormat, sequence);
+    }
+
+    private void flush(List<Object[]> posts, List<Object[]> comments) {
+        if (!posts.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO posts (id, title, content, user_id, publication_date, updated_at, version, comment_count) VALUES (?, ?, ?, ?, ?, ?, 0, ?)", posts);
+            posts.clear();
+        }
+        if (!comments.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO comments (id, content, publication_date, updated_at, version, user_id, post_id, path) VALUES (?, ?, ?, ?, 0, ?, ?, ?)", comments);
+            comments.clear();
+        }
+    }
+}
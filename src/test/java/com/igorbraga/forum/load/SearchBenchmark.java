@@ -0,0 +1,103 @@
+package com.igorbraga.forum.load;
+
+import com.igorbraga.forum.ForumApplication;
+import com.igorbraga.forum.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures ranked full-text search latency against PostgreSQL with a million-post corpus.
+ * Needs a disposable database:
+ * {@code mvn test -Dtest=SearchBenchmark -Dbenchmark.postgresUrl=jdbc:postgresql://localhost:5432/forum_bench
+ * -Dbenchmark.postgresUser=... -Dbenchmark.postgresPassword=...}
+ */
+@EnabledIfSystemProperty(named = "benchmark.postgresUrl", matches = ".+")
+class SearchBenchmark {
+    private static final int POSTS = Integer.getInteger("benchmark.posts", 1_000_000);
+    private static final int QUERIES_PER_TERM = 200;
+    private static final double P99_BUDGET_MS = 50;
+    private static final List<String> QUERIES = List.of(
+            "kubernetes", "garbage collector", "\"connection pool\"", "postgres -mysql", "latency spikes", "virtual threads");
+
+    @Test
+    void rankedSearchStaysUnderBudgetOnAMillionPosts() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ForumApplication.class)
+                .run("--spring.main.web-application-type=none",
+                        "--spring.datasource.url=" + System.getProperty("benchmark.postgresUrl"),
+                        "--spring.datasource.username=" + System.getProperty("benchmark.postgresUser", "postgres"),
+                        "--spring.datasource.password=" + System.getProperty("benchmark.postgresPassword", ""),
+                        "--spring.datasource.driver-class-name=org.postgresql.Driver")) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            seed(jdbc);
+            jdbc.execute("ANALYZE posts");
+            jdbc.execute("ANALYZE comments");
+
+            PostRepository postRepository = context.getBean(PostRepository.class);
+            for (String query : QUERIES) {
+                for (int i = 0; i < 20; i++) {
+                    postRepository.searchPostIds(query, 21, 0);
+                }
+            }
+
+            long[] latencies = new long[QUERIES.size() * QUERIES_PER_TERM];
+            int sample = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES_PER_TERM; i++) {
+                for (String query : QUERIES) {
+                    long sent = System.nanoTime();
+                    postRepository.searchPostIds(query, 21, (i % 5) * 20);
+                    latencies[sample++] = System.nanoTime() - sent;
+                }
+            }
+            Arrays.sort(latencies);
+            LoadGenerator.Result result = new LoadGenerator.Result("search (" + POSTS + " posts)", latencies.length, 0,
+                    Duration.ofNanos(System.nanoTime() - start), latencies);
+            System.out.println(result.format());
+
+            assertThat(result.percentileMillis(99)).isLessThan(P99_BUDGET_MS);
+        }
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        Integer existing = jdbc.queryForObject("SELECT count(*) FROM posts", Integer.class);
+        if (existing != null && existing >= POSTS) {
+            return;
+        }
+        jdbc.update("INSERT INTO roles (name) SELECT 'ROLE_USER' WHERE NOT EXISTS (SELECT 1 FROM roles WHERE name = 'ROLE_USER')");
+        jdbc.update("INSERT INTO users (id, username, email, password) VALUES (nextval('users_seq'), 'search-benchmark', 'search-benchmark@forum.test', 'not-a-hash') ON CONFLICT DO NOTHING");
+        Long userId = jdbc.queryForObject("SELECT id FROM users WHERE username = 'search-benchmark'", Long.class);
+
+        // Every post gets three words from a 40-word vocabulary plus filler, so terms match between 2% and 8% of the corpus.
+        jdbc.update("""
+                WITH vocabulary AS (
+                    SELECT ARRAY['kubernetes','garbage','collector','connection','pool','postgres','mysql','latency',
+                                 'spikes','virtual','threads','cache','index','query','planner','vacuum','replica',
+                                 'kafka','consumer','offset','jvm','heap','allocation','profiler','flame','graph',
+                                 'deadlock','mutex','scheduler','kernel','socket','buffer','compression','codec',
+                                 'gateway','proxy','tls','certificate','dns','resolver'] AS words
+                )
+                INSERT INTO posts (id, title, content, user_id, publication_date, updated_at, version, comment_count)
+                SELECT base.max_id + g,
+                       'Notes on ' || words[1 + g % 40] || ' and ' || words[1 + (g / 40) % 40],
+                       'While tuning ' || words[1 + (g / 7) % 40] || ' we noticed ' || words[1 + (g / 13) % 40] ||
+                       ' behaving oddly next to ' || words[1 + (g / 29) % 40] || '. ' || repeat('Lorem ipsum dolor sit amet. ', 8),
+                       ?, now() - (g || ' seconds')::interval, now() - (g || ' seconds')::interval, 0, 0
+                FROM vocabulary, generate_series(1, ?) AS g, (SELECT coalesce(max(id), 0) AS max_id FROM posts) AS base
+                """, userId, POSTS - (existing == null ? 0 : existing));
+        jdbc.update("""
+                INSERT INTO comments (id, content, publication_date, updated_at, version, user_id, post_id, path)
+                SELECT next_id, 'Have you tried a different connection pool or a replica for this?', now(), now(), 0, ?, post_id, lpad(next_id::text, 19, '0')
+                FROM (SELECT nextval('comments_seq') AS next_id, id AS post_id
+                      FROM posts WHERE id % 5 = 0 AND NOT EXISTS (SELECT 1 FROM comments c WHERE c.post_id = posts.id)) AS new_comments
+                """, userId);
+    }
+}
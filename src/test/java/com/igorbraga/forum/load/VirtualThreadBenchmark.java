@@ -0,0 +1,77 @@
+package com.igorbraga.forum.load;
+
+import com.igorbraga.forum.ForumApplication;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares request throughput and tail latency of the REST API on Tomcat platform threads
+ * versus virtual threads, and counts carrier pinning events while the virtual-thread run is active.
+ * Run with {@code mvn test -Dtest=VirtualThreadBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmark {
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int REQUESTS_PER_WORKER = Integer.getInteger("benchmark.requestsPerWorker", 50);
+    private static final int POSTS = 500;
+    private static final int COMMENTS_PER_POST = 20;
+
+    @Test
+    void virtualThreadsKeepUpWithPlatformThreadsUnderHighConcurrency() throws Exception {
+        LoadGenerator.Result platform = runAgainst(false);
+        AtomicInteger pinnedEvents = new AtomicInteger();
+        LoadGenerator.Result virtual;
+        try (RecordingStream pinning = new RecordingStream()) {
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> pinnedEvents.incrementAndGet());
+            pinning.startAsync();
+            virtual = runAgainst(true);
+        }
+
+        System.out.println(platform.format());
+        System.out.println(virtual.format());
+        System.out.println("Virtual thread pinning events over 1 ms: " + pinnedEvents.get());
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private LoadGenerator.Result runAgainst(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ForumApplication.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + mode,
+                        "--spring.datasource.hikari.maximum-pool-size=20")) {
+            new LoadTestSeeder(context.getBean(JdbcTemplate.class))
+                    .seed(new LoadTestSeeder.Scale(100, POSTS, COMMENTS_PER_POST), "not-a-hash");
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            LoadGenerator.run(mode + " (warm-up)", 50, 20, () -> nextRequest(baseUrl));
+            return LoadGenerator.run(mode + " threads", CONCURRENCY, REQUESTS_PER_WORKER, () -> nextRequest(baseUrl));
+        }
+    }
+
+    private HttpRequest nextRequest(String baseUrl) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long postId = random.nextLong(1, POSTS + 1);
+        String path = switch (random.nextInt(3)) {
+            case 0 -> "/api/posts";
+            case 1 -> "/api/posts/" + postId;
+            default -> "/api/posts/" + postId + "/comments";
+        };
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+}
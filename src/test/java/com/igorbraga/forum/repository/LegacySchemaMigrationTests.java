@@ -0,0 +1,90 @@
+package com.igorbraga.forum.repository;
+
+import com.igorbraga.forum.ForumApplication;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.post.Post;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application on a database in the shape Hibernate's ddl-auto=update left it before the schema moved
+ * to Flyway, and checks that it is baselined, upgraded in place and then validates against the entities.
+ */
+class LegacySchemaMigrationTests {
+    private static final String URL = "jdbc:h2:mem:legacy-schema;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void legacyDatabaseIsBaselinedAndUpgraded() {
+        JdbcTemplate legacy = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        createLegacySchema(legacy);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ForumApplication.class)
+                .run("--spring.main.web-application-type=none", "--spring.datasource.url=" + URL)) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertThat(jdbc.queryForList("SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class))
+                    .startsWith("0", "1", "2");
+            assertThat(jdbc.queryForList("SELECT comment_count FROM posts ORDER BY id", Long.class)).containsExactly(2L, 0L);
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM posts WHERE updated_at IS NULL OR version <> 0", Long.class)).isZero();
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM comments WHERE updated_at IS NULL OR path IS NULL", Long.class)).isZero();
+
+            CommentRepository commentRepository = context.getBean(CommentRepository.class);
+            assertThat(commentRepository.findSummariesByPostId(1L, Limit.unlimited()))
+                    .extracting(CommentSummary::content)
+                    .containsExactly("First legacy comment", "Second legacy comment");
+
+            PostRepository postRepository = context.getBean(PostRepository.class);
+            Post post = new Post();
+            post.setTitle("Written after the upgrade");
+            post.setContent("New content");
+            post.setPublicationDate(LocalDateTime.now());
+            assertThat(postRepository.save(post).getId()).isGreaterThan(51L);
+        }
+    }
+
+    /**
+     * The DDL ddl-auto=update generated for the original entities: identity keys for users, roles and comments,
+     * Hibernate's default pooled sequence for posts, and no columns added since.
+     */
+    private static void createLegacySchema(JdbcTemplate jdbc) {
+        jdbc.execute("CREATE SEQUENCE posts_seq START WITH 1 INCREMENT BY 50");
+        jdbc.execute("""
+                CREATE TABLE roles (id BIGINT GENERATED BY DEFAULT AS IDENTITY, name VARCHAR(20) NOT NULL,
+                    PRIMARY KEY (id), UNIQUE (name))""");
+        jdbc.execute("""
+                CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY, email VARCHAR(255) NOT NULL,
+                    password VARCHAR(255) NOT NULL, username VARCHAR(255) NOT NULL,
+                    PRIMARY KEY (id), UNIQUE (email), UNIQUE (username))""");
+        jdbc.execute("""
+                CREATE TABLE user_roles (role_id BIGINT NOT NULL, user_id BIGINT NOT NULL, PRIMARY KEY (role_id, user_id),
+                    FOREIGN KEY (role_id) REFERENCES roles, FOREIGN KEY (user_id) REFERENCES users)""");
+        jdbc.execute("""
+                CREATE TABLE posts (id BIGINT NOT NULL, content TEXT NOT NULL, publication_date TIMESTAMP(6),
+                    title VARCHAR(255), user_id BIGINT, PRIMARY KEY (id), FOREIGN KEY (user_id) REFERENCES users)""");
+        jdbc.execute("""
+                CREATE TABLE comments (id BIGINT GENERATED BY DEFAULT AS IDENTITY, content TEXT NOT NULL,
+                    publication_date TIMESTAMP(6) NOT NULL, post_id BIGINT NOT NULL, user_id BIGINT NOT NULL,
+                    PRIMARY KEY (id), FOREIGN KEY (post_id) REFERENCES posts, FOREIGN KEY (user_id) REFERENCES users)""");
+
+        jdbc.update("INSERT INTO roles (name) VALUES ('ROLE_USER')");
+        jdbc.update("INSERT INTO users (username, email, password) VALUES ('legacy', 'legacy@forum.test', 'hash')");
+        jdbc.update("INSERT INTO user_roles (role_id, user_id) VALUES (1, 1)");
+        for (String title : List.of("Legacy post", "Quiet legacy post")) {
+            Long id = jdbc.queryForObject("SELECT NEXT VALUE FOR posts_seq", Long.class);
+            jdbc.update("INSERT INTO posts (id, title, content, user_id, publication_date) VALUES (?, ?, 'Legacy content', 1, TIMESTAMP '2024-01-01 00:00:00')",
+                    id, title);
+        }
+        jdbc.update("""
+                INSERT INTO comments (content, publication_date, post_id, user_id) VALUES
+                    ('First legacy comment', TIMESTAMP '2024-01-01 01:00:00', 1, 1),
+                    ('Second legacy comment', TIMESTAMP '2024-01-01 02:00:00', 1, 1)""");
+    }
+}
@@ -0,0 +1,142 @@
+package com.igorbraga.forum.repository;
+
+import com.igorbraga.forum.config.CacheConfig;
+import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.post.Post;
+import com.igorbraga.forum.domain.post.PostDetailRow;
+import com.igorbraga.forum.domain.post.PostResponseDTO;
+import com.igorbraga.forum.domain.post.PostSummary;
+import com.igorbraga.forum.domain.post.PostSummaryRow;
+import com.igorbraga.forum.domain.user.Role;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.domain.user.UserResponseDTO;
+import com.igorbraga.forum.service.AuthorDirectory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CacheConfig.class, AuthorDirectory.class})
+class PostRepositoryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private AuthorDirectory authorDirectory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @Test
+    void postDetailLoadsPostAndCommentSummariesInTwoStatements() {
+        Role userRole = entityManager.persist(new Role(null, "ROLE_USER"));
+        Role adminRole = entityManager.persist(new Role(null, "ROLE_ADMIN"));
+        User author = persistUser("author", Set.of(userRole, adminRole));
+
+        Post post = new Post();
+        post.setTitle("Title");
+        post.setContent("Some post content");
+        post.setAuthor(author);
+        post.setPublicationDate(LocalDateTime.now());
+        entityManager.persist(post);
+
+        for (int i = 0; i < 5; i++) {
+            Comment comment = new Comment();
+            comment.setContent("Comment " + i);
+            comment.setAuthor(persistUser("commenter" + i, Set.of(userRole)));
+            comment.setPost(post);
+            entityManager.persist(comment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        PostDetailRow row = postRepository.findDetailRowById(post.getId()).orElseThrow();
+        List<CommentSummary> comments = commentRepository.findSummariesByPostId(row.id(), Limit.unlimited());
+
+        assertThat(row.authorId()).isEqualTo(author.getId());
+        assertThat(comments)
+                .extracting(comment -> comment.author().username())
+                .containsExactly("commenter0", "commenter1", "commenter2", "commenter3", "commenter4");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        PostResponseDTO response = row.toResponse(authorDirectory.getAuthor(row.authorId()), comments);
+        assertThat(response.getAuthor().roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void feedSummariesResolveEachDistinctAuthorOnce() {
+        Role userRole = entityManager.persist(new Role(null, "ROLE_USER"));
+        Role adminRole = entityManager.persist(new Role(null, "ROLE_ADMIN"));
+        List<User> authors = List.of(
+                persistUser("alice", Set.of(userRole, adminRole)),
+                persistUser("bob", Set.of(userRole)),
+                persistUser("carol", Set.of(userRole)));
+
+        List<Long> postIds = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            Post post = new Post();
+            post.setTitle("Title " + i);
+            post.setContent("Some post content");
+            post.setAuthor(authors.get(i % authors.size()));
+            post.setPublicationDate(LocalDateTime.now());
+            postIds.add(entityManager.persist(post).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<PostSummaryRow> rows = postRepository.findPostSummaryRowsByIds(postIds);
+        Map<Long, UserResponseDTO> authorsById = authorDirectory.getAuthors(rows.stream().map(PostSummaryRow::authorId).toList());
+        List<PostSummary> summaries = rows.stream().map(row -> row.toSummary(authorsById.get(row.authorId()))).toList();
+
+        assertThat(summaries).hasSize(9);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(authorsById.values())
+                .extracting(UserResponseDTO::username)
+                .containsExactlyInAnyOrder("alice", "bob", "carol");
+        assertThat(authorsById.get(authors.get(0).getId()).roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        assertThat(authorsById.get(authors.get(1).getId()).roles())
+                .isSameAs(authorsById.get(authors.get(2).getId()).roles());
+    }
+
+    private User persistUser(String username, Set<Role> roles) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@forum.test");
+        user.setPassword("password");
+        user.setRoles(roles);
+        return entityManager.persist(user);
+    }
+}
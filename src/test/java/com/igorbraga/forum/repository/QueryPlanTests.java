@@ -0,0 +1,116 @@
+package com.igorbraga.forum.repository;
+
+import com.igorbraga.forum.domain.comment.ThreadPosition;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a few thousand posts and comments through the Flyway schema, runs the read-path repository
+ * queries and checks the database's plan for the SQL Hibernate actually issued.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.igorbraga.forum.repository.QueryPlanTests$LastStatement")
+class QueryPlanTests {
+    private static final int USERS = 50;
+    private static final int POSTS = 5_000;
+    private static final int COMMENTS_PER_POST = 4;
+    private static final String COMMENT_PAGE_SEEK = "/\\* PUBLIC\\.IDX_COMMENTS_POST_ID_PUBLICATION_DATE_ID: (?=[^*]*POST_ID = \\?1)[^*]*\\*/";
+    private static final String PATH_INDEX_SEEK = "/\\* PUBLIC\\.IDX_COMMENTS_POST_ID_PATH: (?=[^*]*POST_ID = \\?1)(?=[^*]*PATH > \\?2)[^*]*\\*/";
+    private static final String DEPTH_INDEX_SEEK = "/\\* PUBLIC\\.IDX_COMMENTS_POST_ID_DEPTH_PATH: (?=[^*]*POST_ID = \\?1)(?=[^*]*DEPTH = \\?2)(?=[^*]*PATH > \\?3)[^*]*\\*/";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @BeforeEach
+    void seed() {
+        // PostgreSQL does not index foreign keys on its own, H2 does. H2 then prefers the lone post_id index
+        // over the composite ones and sorts each post's comments, so plan against PostgreSQL's index set.
+        jdbc.execute("ALTER TABLE comments DROP CONSTRAINT IF EXISTS fk_comments_post");
+        jdbc.update("INSERT INTO users (id, username, email, password) SELECT x, 'user-' || x, 'user-' || x || '@forum.test', 'hash' FROM SYSTEM_RANGE(1, ?)", USERS);
+        jdbc.update("""
+                INSERT INTO posts (id, title, content, user_id, publication_date, updated_at, version, comment_count)
+                SELECT x, 'Post ' || x, 'Content ' || x, 1 + MOD(x, ?), DATEADD(MINUTE, x, TIMESTAMP '2024-01-01 00:00:00'),
+                       DATEADD(MINUTE, x, TIMESTAMP '2024-01-01 00:00:00'), 0, ?
+                FROM SYSTEM_RANGE(1, ?)
+                """, USERS, COMMENTS_PER_POST, POSTS);
+        jdbc.update("""
+                INSERT INTO comments (id, content, publication_date, updated_at, version, user_id, post_id, path)
+                SELECT x, 'Comment ' || x, DATEADD(SECOND, x, TIMESTAMP '2024-01-01 00:00:00'),
+                       DATEADD(SECOND, x, TIMESTAMP '2024-01-01 00:00:00'), 0, 1 + MOD(x, ?), 1 + MOD(x, ?), LPAD(CAST(x AS VARCHAR(19)), 19, '0')
+                FROM SYSTEM_RANGE(1, ?)
+                """, USERS, POSTS, POSTS * COMMENTS_PER_POST);
+    }
+
+    @Test
+    void feedPagesReadThePublicationDateIndexInOrder() {
+        postRepository.findFeedEntries(Limit.of(20));
+        assertThat(plan(20))
+                .contains("/* PUBLIC.IDX_POSTS_PUBLICATION_DATE_ID */")
+                .contains("/* index sorted */");
+
+        postRepository.findFeedEntriesBefore(LocalDateTime.of(2024, 1, 2, 0, 0), 100L, Limit.of(20));
+        assertThat(plan(LocalDateTime.of(2024, 1, 2, 0, 0), 100L, 20))
+                .contains("/* PUBLIC.IDX_POSTS_PUBLICATION_DATE_ID: PUBLICATION_DATE <= ?1 */")
+                .contains("/* index sorted */");
+    }
+
+    @Test
+    void commentPagesReadThePostIndexInOrder() {
+        commentRepository.findSummariesByPostId(42L, Limit.of(20));
+        assertThat(plan(42L, 20))
+                .containsPattern(COMMENT_PAGE_SEEK)
+                .contains("/* index sorted */")
+                .doesNotContain("tableScan");
+
+        commentRepository.findSummariesByPostIdAfter(42L, LocalDateTime.of(2024, 1, 1, 0, 0), 1L, Limit.of(20));
+        assertThat(plan(42L, LocalDateTime.of(2024, 1, 1, 0, 0), 1L, 20))
+                .containsPattern(COMMENT_PAGE_SEEK)
+                .contains("/* index sorted */")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void replySubtreesAreOneRangeOfThePathIndex() {
+        commentRepository.findThreadRange(42L, ThreadPosition.segment(41), ThreadPosition.segment(42), Limit.of(20));
+        assertThat(plan(42L, ThreadPosition.segment(41), ThreadPosition.segment(42), 20))
+                .containsPattern(PATH_INDEX_SEEK)
+                .containsPattern("/\\* PUBLIC\\.IDX_COMMENTS_POST_ID_PATH: [^*]*PATH < \\?3");
+    }
+
+    @Test
+    void threadLevelsAreOneRangeOfTheDepthIndex() {
+        commentRepository.findThreadLevel(42L, 0, "", ThreadPosition.END, Limit.of(20));
+        assertThat(plan(42L, 0, "", ThreadPosition.END, 20))
+                .containsPattern(DEPTH_INDEX_SEEK)
+                .containsPattern("/\\* PUBLIC\\.IDX_COMMENTS_POST_ID_DEPTH_PATH: [^*]*PATH < \\?4")
+                .contains("/* index sorted */");
+    }
+
+    private String plan(Object... parameters) {
+        return jdbc.queryForObject("EXPLAIN " + LastStatement.sql, String.class, parameters);
+    }
+
+    public static class LastStatement implements StatementInspector {
+        static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+}
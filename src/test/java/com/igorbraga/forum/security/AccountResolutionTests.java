@@ -0,0 +1,77 @@
+package com.igorbraga.forum.security;
+
+import com.igorbraga.forum.TestFixtures;
+import com.igorbraga.forum.domain.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A username may look like someone else's email. Tokens and registration must never let one account
+ * resolve to the other.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AccountResolutionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void tokenResolvesToItsOwnerWhenTheUsernameIsAnotherAccountsEmail() throws Exception {
+        fixtures.createUserWithEmail("victim", "victim@resolution.test", "ROLE_USER", "ROLE_ADMIN");
+        // Registered before '@' was rejected in usernames.
+        User impostor = fixtures.createUserWithEmail("victim@resolution.test", "impostor@resolution.test", "ROLE_USER");
+
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, tokenFor(impostor)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void registrationRejectsUsernamesContainingAt() throws Exception {
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username": "someone@resolution.test", "email": "attacker@resolution.test", "password": "secret-password"}
+                                """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void registrationRejectsAnEmailTakenAsAUsername() throws Exception {
+        fixtures.createUserWithEmail("taken@resolution.test", "owner@resolution.test", "ROLE_USER");
+
+        MvcResult registration = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username": "newcomer", "email": "taken@resolution.test", "password": "secret-password"}
+                                """))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(registration))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+    private String tokenFor(User user) {
+        return "Bearer " + tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.igorbraga.forum.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTests {
+    private static final int MIN_LIMIT = 2;
+    private static final int MAX_LIMIT = 10;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, true, MIN_LIMIT, MAX_LIMIT, 1000, 200);
+
+    @Test
+    void slowRequestsShrinkTheLimitDownToTheMinimum() {
+        assertThat(limit()).isEqualTo(MAX_LIMIT);
+
+        completeRequestTaking(2000);
+        limiter.adjust();
+        assertThat(limit()).isEqualTo(8);
+
+        for (int i = 0; i < 10; i++) {
+            completeRequestTaking(2000);
+            limiter.adjust();
+        }
+        assertThat(limit()).isEqualTo(MIN_LIMIT);
+    }
+
+    @Test
+    void limitGrowsOnlyWhileRequestsAreShed() {
+        for (int i = 0; i < 10; i++) {
+            completeRequestTaking(2000);
+            limiter.adjust();
+        }
+
+        completeRequestTaking(10);
+        limiter.adjust();
+        assertThat(limit()).isEqualTo(MIN_LIMIT);
+
+        long startedAt = System.nanoTime();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(meterRegistry.get("loadshedding.rejected").counter().count()).isEqualTo(1);
+        limiter.release(startedAt);
+        limiter.release(startedAt);
+        limiter.adjust();
+
+        assertThat(limit()).isEqualTo(MIN_LIMIT + 1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void limitNeverGrowsPastTheMaximum() {
+        for (int i = 0; i < MAX_LIMIT; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.adjust();
+
+        assertThat(limit()).isEqualTo(MAX_LIMIT);
+    }
+
+    private void completeRequestTaking(long millis) {
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private double limit() {
+        return meterRegistry.get("loadshedding.limit").gauge().value();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("loadshedding.inflight").gauge().value();
+    }
+}
@@ -0,0 +1,130 @@
+package com.igorbraga.forum.security;
+
+import com.igorbraga.forum.TestFixtures;
+import com.igorbraga.forum.config.CacheConfig;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PrincipalCacheEvictionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void grantedRoleIsSeenByTheNextRequest() throws Exception {
+        User promoted = fixtures.createUser("promoted", "ROLE_USER");
+        String token = tokenFor(promoted);
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findWithRolesById(promoted.getId()).orElseThrow().getRoles().add(fixtures.role("ROLE_ADMIN")));
+
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void requestDuringTheRevokingTransactionDoesNotKeepTheOldRoles() throws Exception {
+        User demoted = fixtures.createUser("demoted", "ROLE_USER", "ROLE_ADMIN");
+        String token = tokenFor(demoted);
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.findWithRolesById(demoted.getId()).orElseThrow().getRoles()
+                    .removeIf(role -> role.getName().equals("ROLE_ADMIN"));
+            userRepository.flush();
+            // Flushed but not committed: a concurrent request still reads, and caches, the admin role.
+            CompletableFuture.runAsync(() -> {
+                try {
+                    mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, token))
+                            .andExpect(status().isOk());
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }).join();
+        });
+
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void cachedPostsAndTheirCommentsShowTheAuthorsNewNameAndRoles() throws Exception {
+        User author = fixtures.createUser("renamed", "ROLE_USER");
+        Long postId = createPost(author);
+        mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.author.username").value(author.getUsername()))
+                .andExpect(jsonPath("$.comments[0].author.username").value(author.getUsername()));
+
+        String newName = author.getUsername() + "-new";
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findWithRolesById(author.getId()).orElseThrow();
+            user.setUsername(newName);
+            user.getRoles().add(fixtures.role("ROLE_ADMIN"));
+        });
+
+        // Only the author entry is evicted, the post stays cached.
+        assertThat(cacheManager.getCache(CacheConfig.POST_DETAILS).get(postId)).isNotNull();
+        mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.author.username").value(newName))
+                .andExpect(jsonPath("$.author.roles", hasItem("ROLE_ADMIN")))
+                .andExpect(jsonPath("$.comments[0].author.username").value(newName));
+    }
+    private Long createPost(User author) {
+        Long postId = fixtures.createPost(author.getId(), "Renamed author");
+        fixtures.createComment(postId, author.getId(), "Own comment", LocalDateTime.now());
+        return postId;
+    }
+
+    private String tokenFor(User user) {
+        return "Bearer " + tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.igorbraga.forum.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Servlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitFilterTests {
+    private static final long SHED_RETRY_AFTER_SECONDS = 3;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // At most one request in flight, so a held slot turns the next request away.
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, true, 1, 1, 1000, 200);
+    // One login every two seconds, reads effectively unlimited.
+    private final RateLimitFilter filter = new RateLimitFilter(limiter, meterRegistry, true, 0.5, 1, 1000, 1000, 1000, 1000,
+            SHED_RETRY_AFTER_SECONDS);
+
+    @Test
+    void emptyBucketIsAnsweredWithTooManyRequestsAndRetryAfter() throws Exception {
+        assertThat(perform(request("POST", "/api/auth/login"), servlet(false)).getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse throttled = perform(request("POST", "/api/auth/login"), servlet(false));
+
+        assertThat(throttled.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(throttled.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(meterRegistry.get("ratelimit.rejected").tag("route", "auth").counter().count()).isEqualTo(1);
+        MockHttpServletRequest otherClient = request("POST", "/api/auth/login");
+        otherClient.setRemoteAddr("10.0.0.2");
+        assertThat(perform(otherClient, servlet(false)).getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void synchronousRequestsReleaseTheirSlotWhenTheyReturn() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform(request("GET", "/api/posts"), servlet(false)).getStatus()).isEqualTo(HttpStatus.OK.value());
+            assertThat(inFlight()).isZero();
+        }
+    }
+
+    @Test
+    void failedRequestsReleaseTheirSlot() {
+        Servlet failing = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                throw new IllegalStateException("Handler failed");
+            }
+        };
+
+        assertThatThrownBy(() -> perform(request("GET", "/api/posts"), failing)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void asyncRequestsHoldTheirSlotUntilTheyComplete() throws Exception {
+        MockHttpServletRequest async = request("POST", "/api/posts/1/comments");
+        perform(async, servlet(true));
+        assertThat(inFlight()).isEqualTo(1);
+
+        MockHttpServletResponse shed = perform(request("GET", "/api/posts"), servlet(false));
+        assertThat(shed.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(String.valueOf(SHED_RETRY_AFTER_SECONDS));
+
+        async.getAsyncContext().complete();
+
+        assertThat(inFlight()).isZero();
+        assertThat(perform(request("GET", "/api/posts"), servlet(false)).getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void eventStreamsDoNotTakeASlot() throws Exception {
+        MockHttpServletRequest stream = request("GET", "/api/posts/1/comments/stream");
+        perform(stream, servlet(true));
+
+        assertThat(inFlight()).isZero();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, Servlet servlet) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static Servlet servlet(boolean startAsync) {
+        return new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                if (startAsync) {
+                    request.startAsync();
+                }
+            }
+        };
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("loadshedding.inflight").gauge().value();
+    }
+}
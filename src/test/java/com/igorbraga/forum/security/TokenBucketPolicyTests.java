@@ -0,0 +1,64 @@
+package com.igorbraga.forum.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketPolicyTests {
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long START = 1_000_000_000L;
+
+    // Ten tokens a second, so one every 100 ms, and at most three at once.
+    private final TokenBucketPolicy policy = new TokenBucketPolicy("test", 10, 3);
+
+    @Test
+    void newClientGetsTheWholeBurstAndThenWaitsForTheNextToken() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(policy.tryAcquire("client", START)).isZero();
+        }
+
+        assertThat(policy.tryAcquire("client", START)).isEqualTo(INTERVAL);
+        assertThat(policy.tryAcquire("client", START + INTERVAL / 4)).isEqualTo(INTERVAL - INTERVAL / 4);
+    }
+
+    @Test
+    void tokensRefillAtTheConfiguredRateUpToTheBurst() {
+        for (int i = 0; i < 3; i++) {
+            policy.tryAcquire("client", START);
+        }
+
+        assertThat(policy.tryAcquire("client", START + INTERVAL)).isZero();
+        assertThat(policy.tryAcquire("client", START + INTERVAL)).isEqualTo(INTERVAL);
+
+        // Idle long enough for many tokens, but the bucket only holds three.
+        long later = START + 50 * INTERVAL;
+        for (int i = 0; i < 3; i++) {
+            assertThat(policy.tryAcquire("client", later)).isZero();
+        }
+        assertThat(policy.tryAcquire("client", later)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            policy.tryAcquire("busy", START);
+        }
+
+        assertThat(policy.tryAcquire("busy", START)).isPositive();
+        assertThat(policy.tryAcquire("quiet", START)).isZero();
+    }
+
+    @Test
+    void onlyFullBucketsAreEvicted() {
+        policy.tryAcquire("recent", START + 2 * INTERVAL);
+        policy.tryAcquire("idle", START);
+        assertThat(policy.clients()).isEqualTo(2);
+
+        policy.evictFull(START + 2 * INTERVAL);
+
+        assertThat(policy.clients()).isEqualTo(1);
+        assertThat(policy.tryAcquire("recent", START + 2 * INTERVAL)).isZero();
+    }
+}
@@ -0,0 +1,179 @@
+package com.igorbraga.forum.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igorbraga.forum.domain.comment.CommentEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class CommentEventBusTests {
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    private SimpleMeterRegistry meterRegistry;
+    private CommentEventBus bus;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Idle channels are dropped on the first heartbeat after their last subscriber leaves.
+        bus = new CommentEventBus(new ObjectMapper(), meterRegistry, 64, 3, 0, 60_000, 1000, 5);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(bus)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void subscribersReceiveEventsPublishedToTheirPost() throws Exception {
+        MvcResult first = subscribe(1L, null);
+        MvcResult second = subscribe(1L, null);
+        MvcResult other = subscribe(2L, null);
+
+        bus.publish(1L, CommentEvent.deleted(null, 10L));
+
+        awaitContent(first, "event:comment-deleted");
+        awaitContent(second, "event:comment-deleted");
+        assertThat(first.getResponse().getContentAsString()).startsWith(":connected").contains("\"commentId\":10");
+        bus.publish(2L, CommentEvent.deleted(null, 20L));
+        awaitContent(other, "\"commentId\":20");
+        assertThat(other.getResponse().getContentAsString()).doesNotContain("\"commentId\":10");
+    }
+
+    @Test
+    void reconnectReplaysOnlyTheMissedEventsInOrder() throws Exception {
+        MvcResult first = subscribe(1L, null);
+        for (long commentId = 1; commentId <= 3; commentId++) {
+            bus.publish(1L, CommentEvent.deleted(null, commentId));
+        }
+        awaitContent(first, "\"commentId\":3");
+        List<Long> ids = eventIds(first);
+        assertThat(ids).hasSize(3).isSorted();
+
+        MvcResult resumed = subscribe(1L, ids.get(0).toString());
+        awaitContent(resumed, "\"commentId\":3");
+        assertThat(eventIds(resumed)).containsExactly(ids.get(1), ids.get(2));
+        assertThat(resumed.getResponse().getContentAsString()).doesNotContain("\"commentId\":1");
+
+        // The channel keeps three events, so the one after the client's last has been trimmed by now.
+        bus.publish(1L, CommentEvent.deleted(null, 4L));
+        bus.publish(1L, CommentEvent.deleted(null, 5L));
+        MvcResult tooOld = subscribe(1L, ids.get(0).toString());
+        awaitContent(tooOld, "event:resync");
+        MvcResult garbled = subscribe(1L, "not-a-number");
+        awaitContent(garbled, "event:resync");
+    }
+
+    @Test
+    void heartbeatDropsIdleChannels() throws Exception {
+        MvcResult subscription = subscribe(1L, null);
+        bus.heartbeat();
+        assertThat(channelCount()).isEqualTo(1);
+
+        subscription.getRequest().getAsyncContext().complete();
+        Thread.sleep(2);
+        bus.heartbeat();
+
+        assertThat(channelCount()).isZero();
+    }
+
+    @Test
+    void subscribingWhileTheIdleChannelIsDroppedStillReceivesEvents() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(2);
+        for (long postId = 1; postId <= 200; postId++) {
+            subscribe(postId, null).getRequest().getAsyncContext().complete();
+            Thread.sleep(1);
+
+            long post = postId;
+            CompletableFuture<Void> heartbeat = CompletableFuture.runAsync(() -> {
+                await(start);
+                bus.heartbeat();
+            });
+            await(start);
+            MvcResult subscription = subscribe(post, null);
+            heartbeat.join();
+
+            bus.publish(post, CommentEvent.deleted(null, post));
+            awaitContent(subscription, "\"commentId\":" + post);
+            subscription.getRequest().getAsyncContext().complete();
+        }
+    }
+
+    private MvcResult subscribe(Long postId, String lastEventId) throws Exception {
+        var request = get("/stream/{postId}", postId);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.getResponse().getContentAsString().contains(expected)) {
+            assertThat(System.currentTimeMillis())
+                    .as("waiting for %s in %s", expected, result.getResponse().getContentAsString())
+                    .isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static List<Long> eventIds(MvcResult result) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(result.getResponse().getContentAsString());
+        while (matcher.find()) {
+            ids.add(Long.valueOf(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private double channelCount() {
+        return meterRegistry.get("comments.events.channels").gauge().value();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @RestController
+    static class StreamController {
+        private final CommentEventBus bus;
+
+        StreamController(CommentEventBus bus) {
+            this.bus = bus;
+        }
+
+        @GetMapping("/stream/{postId}")
+        SseEmitter stream(@PathVariable Long postId,
+                          @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return bus.subscribe(postId, lastEventId);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.TestFixtures;
+import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.domain.comment.CommentSummary;
+import com.igorbraga.forum.domain.comment.ThreadPosition;
+import com.igorbraga.forum.domain.user.AuthorSummary;
+import com.igorbraga.forum.domain.user.User;
+import com.igorbraga.forum.repository.CommentRepository;
+import com.igorbraga.forum.repository.PostRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest
+class CommentIngestionServiceTests {
+    private static final int QUEUE_CAPACITY = 4;
+    private static final long RETRY_AFTER_SECONDS = 7;
+    private static final int MAX_THREAD_DEPTH = 2;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostQueryService postQueryService;
+
+    @Autowired
+    private HotPostRanking hotPostRanking;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private TransactionTemplate transactionTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private CommentIngestionService ingestion;
+    private AuthorSummary author;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        meterRegistry = new SimpleMeterRegistry();
+        // Not started: comments stay queued until a test starts the flusher.
+        ingestion = new CommentIngestionService(postRepository, commentRepository, postQueryService, hotPostRanking,
+                entityManager, transactionManager, meterRegistry, true, QUEUE_CAPACITY, 50, 20, RETRY_AFTER_SECONDS, MAX_THREAD_DEPTH);
+        User user = fixtures.createUser("commenter");
+        author = new AuthorSummary(user.getId(), user.getUsername());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestion.shutdown();
+    }
+
+    @Test
+    void queuedCommentsAreWrittenInOneBatch() throws Exception {
+        Long postId = fixtures.createPost(author.id(), "Ingestion");
+        List<CompletableFuture<CommentSummary>> results = List.of(
+                ingestion.submit(postId, null, author, "First comment"),
+                ingestion.submit(postId, null, author, "Second comment"),
+                ingestion.submit(postId, null, author, "Third comment"));
+
+        ingestion.start();
+
+        for (CompletableFuture<CommentSummary> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).id()).isNotNull();
+        }
+        // The flusher records its metrics after completing the results, so wait for it to stop.
+        ingestion.shutdown();
+        DistributionSummary batchSize = meterRegistry.get("comments.ingestion.batch.size").summary();
+        assertThat(batchSize.count()).isEqualTo(1);
+        assertThat(batchSize.totalAmount()).isEqualTo(3);
+        assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isEqualTo(3);
+    }
+
+    @Test
+    void fullQueueRejectsWithRetryAfter() {
+        Long postId = fixtures.createPost(author.id(), "Ingestion");
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            ingestion.submit(postId, null, author, "Queued comment " + i);
+        }
+
+        assertThatThrownBy(() -> ingestion.submit(postId, null, author, "One too many"))
+                .isInstanceOfSatisfying(ResponseStatusException.class, ex -> {
+                    assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo(String.valueOf(RETRY_AFTER_SECONDS));
+                });
+        assertThat(meterRegistry.get("comments.ingestion.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void commentsLeftInTheQueueAtShutdownFailWithServiceUnavailable() throws InterruptedException {
+        Long postId = fixtures.createPost(author.id(), "Ingestion");
+        CompletableFuture<CommentSummary> queued = ingestion.submit(postId, null, author, "Never flushed");
+
+        ingestion.shutdown();
+
+        assertThat(failureStatus(queued)).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThatThrownBy(() -> ingestion.submit(postId, null, author, "After shutdown"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void failedBatchIsRetriedOneCommentAtATime() throws Exception {
+        Long postId = fixtures.createPost(author.id(), "Ingestion");
+        CompletableFuture<CommentSummary> first = ingestion.submit(postId, null, author, "Valid comment");
+        // Too short for the entity's validation, which fails the flush of the whole batch.
+        CompletableFuture<CommentSummary> invalid = ingestion.submit(postId, null, author, "x");
+        CompletableFuture<CommentSummary> last = ingestion.submit(postId, null, author, "Another valid comment");
+
+        ingestion.start();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).content()).isEqualTo("Valid comment");
+        assertThat(last.get(5, TimeUnit.SECONDS).content()).isEqualTo("Another valid comment");
+        assertThat(catchThrowable(() -> invalid.get(5, TimeUnit.SECONDS))).hasCauseInstanceOf(RuntimeException.class);
+        assertThat(commentRepository.findSummariesByPostId(postId, Limit.unlimited()))
+                .extracting(CommentSummary::content)
+                .containsExactly("Valid comment", "Another valid comment");
+        assertThat(meterRegistry.get("comments.ingestion.batch.size").summary().count()).isEqualTo(2);
+    }
+
+    @Test
+    void postsAndParentsAreValidatedPerCommentWithinABatch() throws Exception {
+        Long postId = fixtures.createPost(author.id(), "Ingestion");
+        Long otherPostId = fixtures.createPost(author.id(), "Ingestion");
+        ingestion.start();
+        CommentSummary root = ingestion.submit(postId, null, author, "Root comment").get(5, TimeUnit.SECONDS);
+        CommentSummary otherRoot = ingestion.submit(otherPostId, null, author, "Root on another post").get(5, TimeUnit.SECONDS);
+
+        CompletableFuture<CommentSummary> reply = ingestion.submit(postId, root.id(), author, "A reply");
+        CompletableFuture<CommentSummary> missingPost = ingestion.submit(Long.MAX_VALUE, null, author, "Nowhere");
+        CompletableFuture<CommentSummary> foreignParent = ingestion.submit(postId, otherRoot.id(), author, "Wrong thread");
+        CompletableFuture<CommentSummary> missingParent = ingestion.submit(postId, Long.MAX_VALUE, author, "No parent");
+
+        assertThat(reply.get(5, TimeUnit.SECONDS).id()).isNotNull();
+        assertThat(failureStatus(missingPost)).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(failureStatus(foreignParent)).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(failureStatus(missingParent)).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isEqualTo(2);
+        assertThat(commentRepository.findById(root.id()).orElseThrow().getReplyCount()).isEqualTo(1);
+    }
+
+    private static HttpStatusCode failureStatus(CompletableFuture<?> result) {
+        Throwable failure = catchThrowable(() -> result.get(5, TimeUnit.SECONDS));
+        assertThat(failure).hasCauseInstanceOf(ResponseStatusException.class);
+        return ((ResponseStatusException) failure.getCause()).getStatusCode();
+    }
+
+    @Test
+    void repliesAreNestedUnderTheirParentsUpToTheDepthLimit() throws Exception {
+        Long postId = fixtures.createPost(author.id(), "Ingestion");
+        ingestion.start();
+
+        CommentSummary root = ingestion.submit(postId, null, author, "Root comment").get(5, TimeUnit.SECONDS);
+        CommentSummary reply = ingestion.submit(postId, root.id(), author, "First level reply").get(5, TimeUnit.SECONDS);
+        CommentSummary nested = ingestion.submit(postId, reply.id(), author, "Second level reply").get(5, TimeUnit.SECONDS);
+        CompletableFuture<CommentSummary> tooDeep = ingestion.submit(postId, nested.id(), author, "Third level reply");
+
+        assertThat(failureStatus(tooDeep)).isEqualTo(HttpStatus.BAD_REQUEST);
+        transactionTemplate.executeWithoutResult(status -> {
+            Comment rootComment = commentRepository.findById(root.id()).orElseThrow();
+            Comment replyComment = commentRepository.findById(reply.id()).orElseThrow();
+            Comment nestedComment = commentRepository.findById(nested.id()).orElseThrow();
+            assertThat(rootComment.getPath()).isEqualTo(ThreadPosition.segment(root.id()));
+            assertThat(replyComment.getPath()).isEqualTo(rootComment.getPath() + ThreadPosition.segment(reply.id()));
+            assertThat(nestedComment.getPath()).isEqualTo(replyComment.getPath() + ThreadPosition.segment(nested.id()));
+            assertThat(List.of(rootComment.getDepth(), replyComment.getDepth(), nestedComment.getDepth())).containsExactly(0, 1, 2);
+            assertThat(nestedComment.getParentId()).isEqualTo(reply.id());
+            assertThat(List.of(rootComment.getReplyCount(), replyComment.getReplyCount(), nestedComment.getReplyCount()))
+                    .containsExactly(1, 1, 0);
+        });
+        assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,175 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.TestFixtures;
+import com.igorbraga.forum.domain.comment.Comment;
+import com.igorbraga.forum.repository.CommentRepository;
+import com.igorbraga.forum.repository.PostHotScoreRepository;
+import com.igorbraga.forum.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class HotPostRankingTests {
+    private static final long HALF_LIFE_MS = 6 * 60 * 60 * 1000;
+
+    @Autowired
+    private PostHotScoreRepository scoreRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private TransactionTemplate transactionTemplate;
+    private Long authorId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        authorId = fixtures.createUser("ranked").getId();
+    }
+
+    @Test
+    void recentCommentsOutweighOlderOnes() {
+        HotPostRanking ranking = newRanking();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Two half-lives old: 2 * 0.25
+        ranking.recordComment(1L, now.minusHours(12));
+        ranking.recordComment(1L, now.minusHours(12));
+        ranking.recordComment(2L, now);
+        // An hour old: 3 * 0.89
+        ranking.recordComment(3L, now.minusHours(1));
+        ranking.recordComment(3L, now.minusHours(1));
+        ranking.recordComment(3L, now.minusHours(1));
+
+        assertThat(ranking.topPostIds(0, 10)).containsExactly(3L, 2L, 1L);
+        assertThat(ranking.topPostIds(1, 1)).containsExactly(2L);
+    }
+
+    @Test
+    void snapshotDropsPostsBelowTheMinimum() {
+        HotPostRanking ranking = newRanking();
+        Long stale = fixtures.createPost(authorId, "Ranking");
+        Long active = fixtures.createPost(authorId, "Ranking");
+
+        ranking.recordComment(stale, LocalDateTime.now().minusDays(3));
+        ranking.recordComment(active, LocalDateTime.now());
+        assertThat(ranking.topPostIds(0, 10)).containsExactly(active, stale);
+
+        ranking.snapshot();
+
+        assertThat(ranking.topPostIds(0, 10)).containsExactly(active);
+        assertThat(scoreRepository.findById(stale)).isEmpty();
+        assertThat(scoreRepository.findById(active)).isPresent();
+    }
+
+    @Test
+    void removedCommentsAndPostsLeaveTheRanking() {
+        HotPostRanking ranking = newRanking();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime first = now.minusMinutes(1);
+        LocalDateTime second = now.minusMinutes(2);
+
+        ranking.recordComment(1L, first);
+        ranking.recordComment(1L, second);
+        // One fresh comment and one a half-life old: 1.5
+        ranking.recordComment(2L, now);
+        ranking.recordComment(2L, now.minusHours(6));
+        assertThat(ranking.topPostIds(0, 10)).containsExactly(1L, 2L);
+
+        ranking.removeComments(1L, List.of(first));
+        assertThat(ranking.topPostIds(0, 10)).containsExactly(2L, 1L);
+
+        ranking.removeComments(1L, List.of(second));
+        assertThat(ranking.topPostIds(0, 10)).containsExactly(2L);
+
+        ranking.removePost(2L);
+        assertThat(ranking.topPostIds(0, 10)).isEmpty();
+    }
+
+    @Test
+    void removalsInsideATransactionApplyOnlyOnCommit() {
+        HotPostRanking ranking = newRanking();
+        Long postId = fixtures.createPost(authorId, "Ranking");
+        LocalDateTime publishedAt = LocalDateTime.now();
+        ranking.recordComment(postId, publishedAt);
+        ranking.snapshot();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ranking.removeComments(postId, List.of(publishedAt));
+            assertThat(ranking.topPostIds(0, 10)).containsExactly(postId);
+            status.setRollbackOnly();
+        });
+        assertThat(ranking.topPostIds(0, 10)).containsExactly(postId);
+        assertThat(scoreRepository.findById(postId)).isPresent();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ranking.removeComments(postId, List.of(publishedAt));
+            assertThat(ranking.topPostIds(0, 10)).containsExactly(postId);
+        });
+        assertThat(ranking.topPostIds(0, 10)).isEmpty();
+        assertThat(scoreRepository.findById(postId)).isEmpty();
+    }
+
+    @Test
+    void rebuildReplaysNewCommentsAndRecomputesPostsWithRemovals() {
+        LocalDateTime now = LocalDateTime.now();
+        Long trimmed = fixtures.createPost(authorId, "Ranking");
+        Long steady = fixtures.createPost(authorId, "Ranking");
+        Long fresh = fixtures.createPost(authorId, "Ranking");
+        Comment kept = createComment(trimmed, now.minusMinutes(1));
+        Comment deleted = createComment(trimmed, now.minusMinutes(1));
+        Comment recent = createComment(steady, now.minusMinutes(1));
+        Comment old = createComment(steady, now.minusHours(6));
+
+        HotPostRanking ranking = newRanking();
+        List.of(kept, deleted, recent, old)
+                .forEach(comment -> ranking.recordComment(comment.getPost().getId(), comment.getPublicationDate()));
+        ranking.snapshot();
+
+        // After the snapshot: a post gains two comments and another loses one.
+        createComment(fresh, LocalDateTime.now());
+        createComment(fresh, LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            commentRepository.deleteById(deleted.getId());
+            ranking.removeComments(trimmed, List.of(deleted.getPublicationDate()));
+        });
+
+        HotPostRanking restarted = newRanking();
+        restarted.rebuild();
+
+        List<Long> ours = List.of(trimmed, steady, fresh);
+        assertThat(restarted.topPostIds(0, 10_000)).filteredOn(ours::contains)
+                .containsExactly(fresh, steady, trimmed);
+    }
+
+    private HotPostRanking newRanking() {
+        return new HotPostRanking(scoreRepository, commentRepository, postRepository, entityManager,
+                transactionManager, new SimpleMeterRegistry(), HALF_LIFE_MS, 0.01);
+    }
+    private Comment createComment(Long postId, LocalDateTime publishedAt) {
+        return fixtures.createComment(postId, authorId, "Ranked comment", publishedAt);
+    }
+}
@@ -0,0 +1,63 @@
+package com.igorbraga.forum.service;
+
+import com.igorbraga.forum.TestFixtures;
+import com.igorbraga.forum.config.CacheConfig;
+import com.igorbraga.forum.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PostViewCounterTests {
+
+    @Autowired
+    private PostViewCounter postViewCounter;
+
+    @Autowired
+    private PostQueryService postQueryService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void flushKeepsCachedPostsAndTheirViewCounts() {
+        Long postId = fixtures.createPost("Views");
+        Cache details = cacheManager.getCache(CacheConfig.POST_DETAILS);
+        for (int i = 0; i < 3; i++) {
+            postViewCounter.record(postId);
+        }
+        assertThat(postQueryService.getPostDetail(postId).orElseThrow().getViewCount()).isEqualTo(3);
+
+        postViewCounter.flush();
+
+        assertThat(details.get(postId)).isNotNull();
+        assertThat(postRepository.findById(postId).orElseThrow().getViewCount()).isEqualTo(3);
+        postViewCounter.record(postId);
+        postViewCounter.record(postId);
+        assertThat(postQueryService.getPostDetail(postId).orElseThrow().getViewCount()).isEqualTo(5);
+    }
+
+    @Test
+    void evictedPostsStayEvictedAfterAFlush() {
+        Long postId = fixtures.createPost("Views");
+        Cache details = cacheManager.getCache(CacheConfig.POST_DETAILS);
+        postViewCounter.record(postId);
+        postQueryService.getPostDetail(postId);
+        postQueryService.evictPost(postId);
+
+        postViewCounter.flush();
+
+        assertThat(details.get(postId)).isNull();
+        assertThat(postQueryService.getPostDetail(postId).orElseThrow().getViewCount()).isEqualTo(1);
+    }
+}